@@ -229,6 +229,7 @@ public class M extends NLS {
 	public static String DatabaseContent;
 	public static String DatabaseImport;
 	public static String DatabaseImportDescription;
+	public static String DatabaseIsCopied;
 	public static String DatabaseName;
 	public static String DatabaseNewerThanThisError;
 	public static String DatabaseRenameError;
@@ -471,6 +472,7 @@ public class M extends NLS {
 	public static String IsReference;
 	public static String IsWithCosts;
 	public static String IsWithRegionalization;
+	public static String Iteration;
 	public static String KeepLocalDataset;
 	public static String KeepDatasetDeleted;
 	public static String KmlEditor;
@@ -517,6 +519,7 @@ public class M extends NLS {
 	public static String MaximumMemoryUsage;
 	public static String Mean;
 	public static String MeanFormula;
+	public static String Median;
 	public static String MediumOpportunity;
 	public static String MediumRisk;
 	public static String MemoryToHighMessage;
@@ -538,6 +541,7 @@ public class M extends NLS {
 	public static String ModelingConstants;
 	public static String Modules;
 	public static String MonteCarloSimulation;
+	public static String MoreModelsToLoad;
 	public static String MoreThanXProcesses;
 	public static String Move;
 	public static String MoveDown;
@@ -657,6 +661,7 @@ public class M extends NLS {
 	public static String Pcr;
 	public static String PedigreeMatrix;
 	public static String PedigreeMatrixMessage;
+	public static String Percentile;
 	public static String Physical;
 	public static String PhysicalAndEconomicAllocation;
 	public static String PleaseEnterAName;
@@ -945,6 +950,7 @@ public class M extends NLS {
 	public static String UpdatingProductSystem;
 	public static String UpgradingRepositoryIndex;
 	public static String UpstreamInclDirect;
+	public static String UpstreamResultsOf;
 	public static String UpstreamTotal;
 	public static String Urn;
 	public static String Usage;
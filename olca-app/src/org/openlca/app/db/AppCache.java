@@ -1,21 +1,66 @@
 package org.openlca.app.db;
 
-import java.util.HashMap;
+import java.lang.ref.SoftReference;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
 
+import org.openlca.core.math.Simulator;
+import org.openlca.core.math.data_quality.DQResult;
+import org.openlca.core.results.LcaResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * A simple cache for short data transfer (e.g. between two editor pages).
+ * <p>
+ * The cache is bounded: entries that are older than {@link #MAX_AGE} are
+ * evicted and when the estimated size of all entries exceeds the byte limit
+ * of the cache, the oldest entries are evicted first. Result objects (like
+ * instances of {@link LcaResult}, {@link DQResult}, or {@link Simulator}) are
+ * only softly referenced, so that they can be collected under memory pressure
+ * when an editor that should take them never does (e.g. because its
+ * initialization failed). They are not counted in the byte limit and are
+ * never evicted because of it, as the garbage collector already bounds their
+ * memory; otherwise, a large result could be evicted by the next put before
+ * the editor that should take it is opened. Thus, the caller of a remove
+ * method should always handle the case that the requested object is not
+ * available anymore.
  */
 public class AppCache {
 
-	private Map<String, Object> map = new HashMap<>();
+	/** The maximum age of an entry in milliseconds. */
+	public static final long MAX_AGE = 5 * 60 * 1000;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final Map<String, Entry> map = new LinkedHashMap<>();
+	private final long maxBytes;
+
+	private long bytes;
+	private long hits;
+	private long misses;
+	private long evictions;
 
 	public AppCache() {
+		this(Runtime.getRuntime().maxMemory() / 4);
 	}
 
-	public void put(String key, Object val) {
-		map.put(key, val);
+	public AppCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	public synchronized void put(String key, Object val) {
+		var old = map.remove(key);
+		if (old != null) {
+			bytes -= old.bytes;
+		}
+		evictExpired();
+		var entry = Entry.of(val);
+		map.put(key, entry);
+		bytes += entry.bytes;
+		evictOversize(key);
 	}
 
 	/**
@@ -28,7 +73,7 @@ public class AppCache {
 	}
 
 	public <T> T remove(String key, Class<T> type) {
-		Object o = map.remove(key);
+		Object o = remove(key);
 		if (type.isInstance(o))
 			return type.cast(o);
 		return null;
@@ -39,8 +84,113 @@ public class AppCache {
 	 * an unsafe cast to T, so you be sure what you do here.
 	 */
 	@SuppressWarnings("unchecked")
-	public <T> T remove(String key) {
-		return (T) map.remove(key);
+	public synchronized <T> T remove(String key) {
+		var entry = map.remove(key);
+		evictExpired();
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		bytes -= entry.bytes;
+		var val = entry.get();
+		if (val == null) {
+			log.warn("object {} was collected before it was taken", key);
+			misses++;
+			return null;
+		}
+		hits++;
+		return (T) val;
+	}
+
+	/**
+	 * Returns the current statistics of the cache.
+	 */
+	public synchronized Stats stats() {
+		return new Stats(map.size(), bytes, hits, misses, evictions);
+	}
+
+	private void evictExpired() {
+		long now = System.currentTimeMillis();
+		var it = map.entrySet().iterator();
+		while (it.hasNext()) {
+			var next = it.next();
+			var entry = next.getValue();
+			if (now - entry.time < MAX_AGE && entry.get() != null)
+				break;
+			evict(it, next.getKey(), entry);
+		}
+	}
+
+	/**
+	 * Evicts the oldest strongly referenced entries until the size of the
+	 * cache is below its limit. The entry with the given key, which was just
+	 * added, is never evicted here.
+	 */
+	private void evictOversize(String newKey) {
+		var it = map.entrySet().iterator();
+		while (bytes > maxBytes && it.hasNext()) {
+			var next = it.next();
+			if (next.getKey().equals(newKey))
+				break;
+			if (next.getValue().soft != null)
+				continue;
+			evict(it, next.getKey(), next.getValue());
+		}
+	}
+
+	private void evict(
+			Iterator<Map.Entry<String, Entry>> it,
+			String key, Entry entry) {
+		it.remove();
+		bytes -= entry.bytes;
+		evictions++;
+		log.trace("evicted object {} with ~{} bytes from app cache",
+				key, entry.bytes);
+	}
+
+	/**
+	 * Cache statistics: the number of entries, their estimated size in bytes,
+	 * and the number of hits, misses, and evictions since the creation of the
+	 * cache.
+	 */
+	public record Stats(
+			int size, long bytes, long hits, long misses, long evictions) {
+	}
+
+	private record Entry(
+			Object strong, SoftReference<Object> soft, long bytes, long time) {
+
+		static Entry of(Object val) {
+			long time = System.currentTimeMillis();
+			return isResult(val)
+					? new Entry(null, new SoftReference<>(val), 0, time)
+					: new Entry(val, null, estimateBytes(val), time);
+		}
+
+		Object get() {
+			return soft != null ? soft.get() : strong;
+		}
+
+		private static boolean isResult(Object val) {
+			return val instanceof LcaResult
+					|| val instanceof DQResult
+					|| val instanceof Simulator;
+		}
+
+		private static long estimateBytes(Object val) {
+			if (val == null)
+				return 0;
+			if (val instanceof double[] a)
+				return 8L * a.length;
+			if (val instanceof Collection<?> c)
+				return 64L * c.size();
+			if (val instanceof Map<?, ?> m)
+				return 96L * m.size();
+			if (val instanceof CharSequence s)
+				return 2L * s.length();
+			// a rough default for all other objects
+			return 1024;
+		}
 	}
 
 }
@@ -1,7 +1,10 @@
 package org.openlca.app.db;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.openlca.app.preferences.FeatureFlag;
+import org.openlca.app.search.SearchIndex;
 import org.openlca.core.database.EntityCache;
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.matrix.cache.MatrixCache;
@@ -20,9 +23,15 @@ public final class Cache {
 	private static Logger log = LoggerFactory.getLogger(Cache.class);
 	private static AppCache appCache = new AppCache();
 	private static EntityCache entityCache;
-	private static MatrixCache matrixCache;
+	private static volatile MatrixCache matrixCache;
 	private static PathBuilder pathCache;
 
+	/**
+	 * Counts the changes of the matrix cache. A preloaded matrix cache is only
+	 * used if there were no changes while it was loaded.
+	 */
+	private static final AtomicLong matrixChanges = new AtomicLong();
+
 	private Cache() {
 	}
 
@@ -44,7 +53,14 @@ public final class Cache {
 
 	public static void close() {
 		log.trace("close cache");
-		evictAll();
+		if (appCache != null) {
+			log.trace("app cache stats: {}", appCache.stats());
+		}
+		log.trace("entity cache invalidations: {}", CacheInvalidation.stats());
+		// the search index is written and not evicted here, as closing the
+		// database does not change its content
+		SearchIndex.close();
+		evictCaches();
 		entityCache = null;
 		matrixCache = null;
 		appCache = null;
@@ -61,6 +77,40 @@ public final class Cache {
 		entityCache = EntityCache.create(database);
 		matrixCache = MatrixCache.createLazy(database);
 		appCache = new AppCache();
+		if (FeatureFlag.PRELOAD_MATRIX_CACHE.isEnabled()) {
+			preloadMatrixCache(database);
+		}
+	}
+
+	/**
+	 * Loads the tables of the matrix cache in a background thread and
+	 * replaces the lazy matrix cache with it when this is finished. Thus, the
+	 * first calculation or linking operation after the activation of a
+	 * database does not need to wait for loading these tables. The preloaded
+	 * cache is dropped when the database was closed or modified meanwhile.
+	 */
+	private static void preloadMatrixCache(IDatabase database) {
+		var lazy = matrixCache;
+		long changes = matrixChanges.get();
+		var thread = new Thread(() -> {
+			try {
+				long start = System.currentTimeMillis();
+				var eager = MatrixCache.createEager(database);
+				synchronized (Cache.class) {
+					if (matrixCache != lazy || matrixChanges.get() != changes) {
+						log.trace("drop preloaded matrix cache; it is outdated");
+						return;
+					}
+					matrixCache = eager;
+				}
+				log.trace("preloaded matrix cache in {} ms",
+						System.currentTimeMillis() - start);
+			} catch (Exception e) {
+				log.warn("failed to preload matrix cache", e);
+			}
+		}, "preload matrix cache");
+		thread.setDaemon(true);
+		thread.start();
 	}
 
 	public static AppCache getAppCache() {
@@ -71,11 +121,16 @@ public final class Cache {
 		if (d == null)
 			return;
 		log.trace("evict {} with ID {}", d.getClass(), d.id);
-		if (d.type == null)
+		if (d.type == null) {
 			evictAll(); // to be on the save side
-		else if (shouldEvictAll(d.type)) {
-			if (entityCache != null)
-				entityCache.invalidateAll();
+			return;
+		}
+		SearchIndex.evict(d);
+		if (CacheInvalidation.hasDependents(d.type)) {
+			CacheInvalidation.invalidate(Database.get(), entityCache, d);
+			if (d.type == ModelType.CATEGORY) {
+				pathCache = null;
+			}
 			evictFromMatrices(d);
 		} else {
 			evictEntity(d);
@@ -83,21 +138,17 @@ public final class Cache {
 		}
 	}
 
-	private static boolean shouldEvictAll(ModelType type) {
-		return type == ModelType.UNIT_GROUP
-				|| type == ModelType.FLOW
-				|| type == ModelType.FLOW_PROPERTY
-				|| type == ModelType.CATEGORY;
-	}
-
 	public static void evictAll() {
 		log.trace("evict all from caches");
+		SearchIndex.evictAll();
+		evictCaches();
+	}
+
+	private static void evictCaches() {
 		if (entityCache != null) {
 			entityCache.invalidateAll();
 		}
-		if (matrixCache != null) {
-			matrixCache.evictAll();
-		}
+		evictAllFromMatrices();
 		pathCache = null;
 	}
 
@@ -118,17 +169,29 @@ public final class Cache {
 		}
 	}
 
-	private static void evictFromMatrices(Descriptor d) {
+	private static synchronized void evictFromMatrices(Descriptor d) {
+		matrixChanges.incrementAndGet();
 		if (matrixCache == null)
 			return;
 		matrixCache.evict(d.type, d.id);
 	}
 
+	private static synchronized void evictAllFromMatrices() {
+		matrixChanges.incrementAndGet();
+		if (matrixCache != null) {
+			matrixCache.evictAll();
+		}
+	}
+
 	public static void registerNew(Descriptor descriptor) {
-		if (matrixCache == null)
-			return;
-		log.trace("register new model {}", descriptor);
-		matrixCache.registerNew(descriptor.type, descriptor.id);
+		SearchIndex.evict(descriptor);
+		synchronized (Cache.class) {
+			matrixChanges.incrementAndGet();
+			if (matrixCache == null)
+				return;
+			log.trace("register new model {}", descriptor);
+			matrixCache.registerNew(descriptor.type, descriptor.id);
+		}
 	}
 
 }
@@ -0,0 +1,242 @@
+package org.openlca.app.db;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.EntityCache;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.model.Category;
+import org.openlca.core.model.Flow;
+import org.openlca.core.model.FlowProperty;
+import org.openlca.core.model.ImpactCategory;
+import org.openlca.core.model.ImpactMethod;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.Process;
+import org.openlca.core.model.ProductSystem;
+import org.openlca.core.model.Result;
+import org.openlca.core.model.SocialIndicator;
+import org.openlca.core.model.UnitGroup;
+import org.openlca.core.model.descriptors.Descriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Invalidates the entries of the entity cache that depend on a changed flow,
+ * flow property, unit group, or category. Entities of these types are
+ * embedded in many other entities (e.g. the flows of the exchanges in a
+ * process) so that a change could make these other entities in the cache
+ * stale. Instead of invalidating the complete cache, the dependent entities
+ * are collected via the reference columns of the database tables and only
+ * these are invalidated. If this fails for some reason, the complete cache is
+ * invalidated as before.
+ * <p>
+ * The dependent entities are collected and invalidated before the eviction
+ * returns, so that a model that is loaded from the cache directly after a
+ * save (e.g. when an editor is opened again or a calculation is started) is
+ * never a stale version.
+ */
+public final class CacheInvalidation {
+
+	private static final Logger log = LoggerFactory.getLogger(CacheInvalidation.class);
+
+	private static final AtomicLong saves = new AtomicLong();
+	private static final AtomicLong invalidated = new AtomicLong();
+	private static final AtomicLong fullInvalidations = new AtomicLong();
+	private static volatile long lastCount;
+
+	private final IDatabase db;
+	private final Set<Key> keys = new HashSet<>();
+
+	private CacheInvalidation(IDatabase db) {
+		this.db = db;
+	}
+
+	/**
+	 * Returns true if the given type has dependent entities that need to be
+	 * invalidated when an entity of that type changes.
+	 */
+	static boolean hasDependents(ModelType type) {
+		return type == ModelType.UNIT_GROUP
+				|| type == ModelType.FLOW
+				|| type == ModelType.FLOW_PROPERTY
+				|| type == ModelType.CATEGORY;
+	}
+
+	/**
+	 * Invalidates the given descriptor and all entities that depend on it in
+	 * the given cache.
+	 */
+	static void invalidate(IDatabase db, EntityCache cache, Descriptor d) {
+		if (cache == null || d == null || d.type == null)
+			return;
+		saves.incrementAndGet();
+		cache.invalidate(d.getClass(), d.id);
+		cache.invalidate(d.type.getModelClass(), d.id);
+		if (db == null) {
+			invalidateAll(cache);
+			return;
+		}
+		try {
+			var inv = new CacheInvalidation(db);
+			if (!inv.collect(d)) {
+				log.trace("{} does not exist anymore; invalidate all", d);
+				invalidateAll(cache);
+				return;
+			}
+			for (var key : inv.keys) {
+				cache.invalidate(key.type, key.id);
+			}
+			long count = inv.keys.size();
+			invalidated.addAndGet(count);
+			lastCount = count;
+			log.trace("invalidated {} cache entries for {}", count, d);
+		} catch (Exception e) {
+			log.warn("failed to collect dependents of " + d
+					+ "; invalidate all", e);
+			invalidateAll(cache);
+		}
+	}
+
+	private static void invalidateAll(EntityCache cache) {
+		cache.invalidateAll();
+		fullInvalidations.incrementAndGet();
+		lastCount = -1;
+	}
+
+	/**
+	 * Returns the current invalidation counters.
+	 */
+	public static Stats stats() {
+		return new Stats(saves.get(), invalidated.get(),
+				fullInvalidations.get(), lastCount);
+	}
+
+	/**
+	 * Collects the keys of the given descriptor and its dependents. Returns
+	 * false if this is not possible because the changed entity was deleted.
+	 */
+	private boolean collect(Descriptor d) {
+		keys.add(new Key(d.getClass(), d.id));
+		keys.add(new Key(d.type.getModelClass(), d.id));
+		switch (d.type) {
+			case FLOW -> collectFlowUsers(Long.toString(d.id));
+			case FLOW_PROPERTY -> collectPropertyUsers(Long.toString(d.id));
+			case UNIT_GROUP -> {
+				var props = """
+						select id from tbl_flow_properties
+						where f_unit_group =\s""" + d.id;
+				query(FlowProperty.class, props);
+				collectPropertyUsers(props);
+			}
+			case CATEGORY -> {
+				return collectCategory(d.id);
+			}
+			default -> {
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Collects the entities that embed the flow properties with the IDs that
+	 * are selected by the given SQL expression.
+	 */
+	private void collectPropertyUsers(String props) {
+		query(UnitGroup.class, """
+				select id from tbl_unit_groups
+				where f_default_flow_property in (""" + props + ")");
+		query(SocialIndicator.class, """
+				select id from tbl_social_indicators
+				where f_activity_quantity in (""" + props + ")");
+		var flows = """
+				select f_flow from tbl_flow_property_factors
+				where f_flow_property in (""" + props + ")";
+		query(Flow.class, flows);
+		collectFlowUsers(flows);
+	}
+
+	/**
+	 * Collects the entities that embed the flows with the IDs that are
+	 * selected by the given SQL expression.
+	 */
+	private void collectFlowUsers(String flows) {
+		query(Process.class, """
+				select distinct f_owner from tbl_exchanges
+				where f_flow in (""" + flows + ")");
+		var impacts = """
+				select f_impact_category from tbl_impact_factors
+				where f_flow in (""" + flows + ")";
+		query(ImpactCategory.class, impacts);
+		query(ImpactMethod.class, """
+				select distinct f_impact_method from tbl_impact_links
+				where f_impact_category in (""" + impacts + ")");
+		query(ProductSystem.class, """
+				select s.id from tbl_product_systems s
+				inner join tbl_exchanges e on s.f_reference_exchange = e.id
+				where e.f_flow in (""" + flows + ")");
+		query(Result.class, """
+				select distinct f_result from tbl_flow_results
+				where f_flow in (""" + flows + ")");
+	}
+
+	/**
+	 * A category is embedded in its parent and child categories and in the
+	 * root entities that it contains. Moving or renaming a category changes
+	 * the paths of its complete sub-tree. As the old parent of a moved
+	 * category is not known anymore, all categories of the same model type are
+	 * invalidated. Returns false if the category does not exist anymore (so
+	 * that its parent is not known at all).
+	 */
+	private boolean collectCategory(long id) {
+		var category = db.get(Category.class, id);
+		if (category == null)
+			return false;
+		if (category.modelType != null) {
+			query(Category.class, "select id from tbl_categories"
+					+ " where model_type = '" + category.modelType.name() + "'");
+		} else if (category.category != null) {
+			keys.add(new Key(Category.class, category.category.id));
+		}
+		var queue = new ArrayDeque<Category>();
+		queue.add(category);
+		while (!queue.isEmpty()) {
+			var next = queue.poll();
+			keys.add(new Key(Category.class, next.id));
+			if (next.modelType != null) {
+				var type = next.modelType;
+				for (var d : Daos.root(db, type).getDescriptors(Optional.of(next))) {
+					keys.add(new Key(type.getModelClass(), d.id));
+					keys.add(new Key(d.getClass(), d.id));
+				}
+			}
+			queue.addAll(next.childCategories);
+		}
+		return true;
+	}
+
+	private void query(Class<?> type, String sql) {
+		NativeSql.on(db).query(sql, r -> {
+			keys.add(new Key(type, r.getLong(1)));
+			return true;
+		});
+	}
+
+	private record Key(Class<?> type, long id) {
+	}
+
+	/**
+	 * Invalidation counters: the number of saves that triggered a dependency
+	 * invalidation, the total number of entries that were invalidated by
+	 * them, the number of fallbacks to a complete invalidation, and the number
+	 * of entries that were invalidated by the last save (-1 if this was a
+	 * complete invalidation).
+	 */
+	public record Stats(
+			long saves, long invalidated, long fullInvalidations, long lastCount) {
+	}
+}
@@ -0,0 +1,279 @@
+package org.openlca.app.db;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.openlca.core.database.Derby;
+import org.openlca.util.Dirs;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the folder of a Derby database into a zolca file. The entries of the
+ * zip file are compressed in parallel. With {@link #online(Derby, File)}, a
+ * backup of a database can be created while the database is open: Derby
+ * writes a consistent snapshot of the database files into a temporary folder
+ * from which the zolca file is then created. Write operations are only
+ * blocked while the snapshot is created. With
+ * {@link #unpack(File, File, IProgressMonitor)}, a zolca file is restored
+ * into a database folder again.
+ */
+public final class DatabaseBackup {
+
+	/**
+	 * The files and folders of a Derby database folder that are managed by
+	 * Derby. In an online backup, these are taken from the snapshot.
+	 */
+	private static final Set<String> DERBY_FILES = Set.of(
+			"seg0", "log", "jar", "service.properties");
+
+	/**
+	 * The files and folders of a Derby database folder that are never packed.
+	 */
+	private static final Set<String> EXCLUDED = Set.of(
+			"tmp", "db.lck", "dbex.lck");
+
+	private DatabaseBackup() {
+	}
+
+	/**
+	 * Creates a backup of the given database while it is open and writes it
+	 * into the given zolca file.
+	 */
+	public static void online(Derby db, File zolca) throws Exception {
+		var folder = db.getDatabaseDirectory();
+		var tempDir = Files.createTempDirectory("olca_backup").toFile();
+		try {
+			// the Derby files are taken from the snapshot, the other files
+			// (like the file storage) from the database folder
+			var snapshot = snapshot(db, tempDir);
+			var sources = new ArrayList<Source>();
+			collect(snapshot, sources, path -> !isDerbyFile(path));
+			collect(folder, sources, path -> isDerbyFile(path)
+					|| isTransient(path)
+					|| isGitPath(path));
+			write(sources, zolca);
+		} finally {
+			Dirs.delete(tempDir);
+		}
+	}
+
+	/**
+	 * Writes a consistent snapshot of the files of the given database into
+	 * the given folder while the database stays open. Returns the folder of
+	 * the snapshot, which is a sub-folder of the given folder with the name of
+	 * the database folder. Note that only the files that are managed by Derby
+	 * (see {@link #isDerbyFile(String)}) should be taken from the snapshot.
+	 */
+	static File snapshot(Derby db, File dir) throws Exception {
+		var folder = db.getDatabaseDirectory();
+		long start = System.currentTimeMillis();
+		try (var con = db.createConnection();
+				 var call = con.prepareCall(
+						 "CALL SYSCS_UTIL.SYSCS_BACKUP_DATABASE(?)")) {
+			call.setString(1, dir.getAbsolutePath());
+			call.execute();
+		}
+		LoggerFactory.getLogger(DatabaseBackup.class).info(
+				"created snapshot of database {} in {} ms",
+				folder.getName(), System.currentTimeMillis() - start);
+		return new File(dir, folder.getName());
+	}
+
+	/**
+	 * Returns true if the given path, relative to a database folder, is
+	 * managed by Derby.
+	 */
+	static boolean isDerbyFile(String path) {
+		return DERBY_FILES.contains(topOf(path));
+	}
+
+	/**
+	 * Returns true if the given path, relative to a database folder, is a lock
+	 * or temporary file of Derby that is never packed or copied.
+	 */
+	static boolean isTransient(String path) {
+		return EXCLUDED.contains(topOf(path));
+	}
+
+	/**
+	 * Writes the given database folder into the given zolca file. The database
+	 * must be closed.
+	 */
+	public static void pack(File folder, File zolca) throws Exception {
+		var sources = new ArrayList<Source>();
+		collect(folder, sources, path -> isTransient(path) || isGitPath(path));
+		write(sources, zolca);
+	}
+
+	/**
+	 * Unpacks the given zolca file into the given database folder. The entries
+	 * are streamed one after another through a small buffer into the folder,
+	 * so the memory usage does not depend on the size of the file. Lock and
+	 * temporary files of Derby and the Git repositories of the file storage
+	 * are not unpacked. Before anything is written, the uncompressed size of
+	 * the entries is checked against the free space of the file system of the
+	 * folder. Throws an {@link OperationCanceledException} when the unpacking
+	 * was canceled via the given monitor; the folder is deleted then and also
+	 * when the unpacking failed.
+	 */
+	public static void unpack(File zolca, File folder, IProgressMonitor monitor)
+			throws IOException {
+		long start = System.currentTimeMillis();
+		var root = folder.getAbsoluteFile().toPath().normalize();
+		try (var zip = new ZipFile(zolca)) {
+
+			var entries = new ArrayList<ZipArchiveEntry>();
+			long totalBytes = 0;
+			for (var entry : Collections.list(zip.getEntries())) {
+				var path = entryPath(entry);
+				if (entry.isDirectory()
+						|| path.isEmpty()
+						|| isTransient(path)
+						|| isGitPath(path))
+					continue;
+				entries.add(entry);
+				totalBytes += Math.max(0, entry.getSize());
+			}
+
+			Files.createDirectories(root);
+			long free = root.toFile().getUsableSpace();
+			if (free < totalBytes)
+				throw new IOException(String.format(
+						"not enough disk space to unpack %s: %.1f MB needed but" +
+								" only %.1f MB available", zolca.getName(),
+						totalBytes / (1024.0 * 1024.0), free / (1024.0 * 1024.0)));
+
+			int totalKB = (int) Math.min(Integer.MAX_VALUE, totalBytes / 1024 + 1);
+			monitor.beginTask("Unpack database", totalKB);
+			var buffer = new byte[64 * 1024];
+			long unpacked = 0;
+			int reportedKB = 0;
+			for (var entry : entries) {
+				var path = entryPath(entry);
+				var target = root.resolve(path).normalize();
+				if (!target.startsWith(root))
+					throw new IOException("invalid entry in zolca file: " + path);
+				monitor.subTask(path);
+				Files.createDirectories(target.getParent());
+				try (var in = zip.getInputStream(entry);
+						 var out = Files.newOutputStream(target)) {
+					int n;
+					while ((n = in.read(buffer)) >= 0) {
+						if (monitor.isCanceled())
+							throw new OperationCanceledException();
+						out.write(buffer, 0, n);
+						unpacked += n;
+						int kb = (int) Math.min(Integer.MAX_VALUE, unpacked / 1024);
+						if (kb > reportedKB) {
+							monitor.worked(kb - reportedKB);
+							reportedKB = kb;
+						}
+					}
+				}
+				if (entry.getTime() > 0) {
+					target.toFile().setLastModified(entry.getTime());
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			Dirs.delete(root.toFile());
+			throw e;
+		}
+		LoggerFactory.getLogger(DatabaseBackup.class).info(
+				"unpacked {} in {} ms", zolca.getName(),
+				System.currentTimeMillis() - start);
+	}
+
+	private static String entryPath(ZipArchiveEntry entry) {
+		var path = entry.getName().replace("\\", "/");
+		while (path.startsWith("/")) {
+			path = path.substring(1);
+		}
+		return path;
+	}
+
+	private static boolean isGitPath(String path) {
+		return path.startsWith(
+				DatabaseDir.FILE_STORAGE + "/" + Repository.GIT_DIR);
+	}
+
+	static String relativePath(Path root, Path file) {
+		return root.relativize(file).toString().replace("\\", "/");
+	}
+
+	private static String topOf(String path) {
+		int i = path.indexOf('/');
+		return i < 0 ? path : path.substring(0, i);
+	}
+
+	private static void collect(File folder, List<Source> sources,
+			Predicate<String> exclude) throws IOException {
+		if (!folder.exists())
+			return;
+		var root = folder.toPath();
+		Files.walkFileTree(root, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				var path = relativePath(root, file);
+				if (!exclude.test(path)) {
+					sources.add(new Source(path, file.toFile()));
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	private static void write(List<Source> sources, File zolca) throws Exception {
+		int threads = Math.max(1, Math.min(8,
+				Runtime.getRuntime().availableProcessors() - 1));
+		var pool = Executors.newFixedThreadPool(threads, r -> {
+			var thread = new Thread(r, "database backup");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			var zip = new ParallelScatterZipCreator(pool);
+			for (var source : sources) {
+				var entry = new ZipArchiveEntry(source.path);
+				entry.setMethod(ZipEntry.DEFLATED);
+				entry.setTime(source.file.lastModified());
+				zip.addArchiveEntry(entry, () -> open(source.file));
+			}
+			try (var out = new ZipArchiveOutputStream(zolca)) {
+				zip.writeTo(out);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static InputStream open(File file) {
+		try {
+			return Files.newInputStream(file.toPath());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private record Source(String path, File file) {
+	}
+}
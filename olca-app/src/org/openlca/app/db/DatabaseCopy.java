@@ -0,0 +1,184 @@
+package org.openlca.app.db;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.openlca.core.database.Derby;
+import org.openlca.core.database.config.DerbyConfig;
+import org.openlca.util.Dirs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Copies the folder of a Derby database into the folder of a new database.
+ * The files are copied in chunks with file channels so that the progress can
+ * be reported in bytes and the copy can be canceled between two chunks; a
+ * canceled or failed copy is deleted again. On file systems that support
+ * this, the JVM copies the chunks directly in the kernel (e.g. with
+ * copy_file_range on Linux, which creates shared, copy-on-write extents on
+ * file systems like Btrfs or XFS).
+ * <p>
+ * The files of a Derby database are modified in place, so they are never
+ * hard linked between the two databases. If the database is the active
+ * database, Derby first writes a snapshot of its files next to the new
+ * folder which is then moved into place; thus, the active database does not
+ * need to be closed.
+ */
+public final class DatabaseCopy {
+
+	private static final long CHUNK_SIZE = 64L * 1024L * 1024L;
+	private static final Logger log = LoggerFactory.getLogger(DatabaseCopy.class);
+
+	private final File source;
+	private final File target;
+	private final IProgressMonitor monitor;
+
+	private long totalBytes;
+	private long copiedBytes;
+	private int reportedKB;
+
+	private DatabaseCopy(File source, File target, IProgressMonitor monitor) {
+		this.source = source;
+		this.target = target;
+		this.monitor = monitor;
+	}
+
+	/**
+	 * Copies the database with the given configuration into the folder of a
+	 * database with the given name. Throws an {@link OperationCanceledException}
+	 * when the copy was canceled via the given monitor.
+	 */
+	public static void run(DerbyConfig config, String newName,
+			IProgressMonitor monitor) throws Exception {
+		var source = DatabaseDir.getRootFolder(config.name());
+		var target = DatabaseDir.getRootFolder(newName);
+		if (target.exists())
+			throw new IOException("the folder " + target + " already exists");
+		var copy = new DatabaseCopy(source, target, monitor);
+		long start = System.currentTimeMillis();
+		try {
+			if (Database.isActive(config) && Database.get() instanceof Derby db) {
+				copy.online(db);
+			} else {
+				copy.offline();
+			}
+		} catch (Exception e) {
+			Dirs.delete(target);
+			throw e;
+		} finally {
+			monitor.done();
+		}
+		log.info("copied database {} to {} in {} ms",
+				config.name(), newName, System.currentTimeMillis() - start);
+	}
+
+	private void offline() throws IOException {
+		var files = collect(path -> !DatabaseBackup.isTransient(path));
+		begin();
+		copy(files);
+	}
+
+	private void online(Derby db) throws Exception {
+
+		// the Derby files are taken from a snapshot, the other files, like
+		// the file storage, are copied from the database folder
+		var files = collect(path -> !DatabaseBackup.isDerbyFile(path)
+				&& !DatabaseBackup.isTransient(path));
+		begin();
+		monitor.subTask("Create a snapshot of the database ...");
+		var snapshotDir = new File(target.getParentFile(),
+				"." + target.getName() + "_snapshot");
+		try {
+			var snapshot = DatabaseBackup.snapshot(db, snapshotDir);
+			checkCanceled();
+			Files.move(snapshot.toPath(), target.toPath(),
+					StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Dirs.delete(snapshotDir);
+		}
+
+		for (var file : files) {
+			Files.deleteIfExists(target.toPath().resolve(file));
+		}
+		copy(files);
+	}
+
+	private List<String> collect(Predicate<String> filter) throws IOException {
+		var files = new ArrayList<String>();
+		var root = source.toPath();
+		Files.walkFileTree(root, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				var path = DatabaseBackup.relativePath(root, file);
+				if (filter.test(path)) {
+					files.add(path);
+					totalBytes += attrs.size();
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return files;
+	}
+
+	private void begin() {
+		int totalKB = (int) Math.min(Integer.MAX_VALUE, totalBytes / 1024 + 1);
+		monitor.beginTask("Copy database", totalKB);
+	}
+
+	private void copy(List<String> files) throws IOException {
+		for (var file : files) {
+			checkCanceled();
+			var from = source.toPath().resolve(file);
+			var to = target.toPath().resolve(file);
+			Files.createDirectories(to.getParent());
+			copyFile(from, to);
+			Files.setLastModifiedTime(to, Files.getLastModifiedTime(from));
+		}
+	}
+
+	private void copyFile(Path from, Path to) throws IOException {
+		try (var in = FileChannel.open(from, StandardOpenOption.READ);
+				 var out = FileChannel.open(to, StandardOpenOption.CREATE_NEW,
+						 StandardOpenOption.WRITE)) {
+			long size = in.size();
+			long pos = 0;
+			while (pos < size) {
+				checkCanceled();
+				long n = in.transferTo(pos, Math.min(CHUNK_SIZE, size - pos), out);
+				if (n <= 0)
+					break;
+				pos += n;
+				worked(n);
+			}
+		}
+	}
+
+	private void worked(long bytes) {
+		copiedBytes += bytes;
+		int kb = (int) Math.min(Integer.MAX_VALUE, copiedBytes / 1024);
+		if (kb > reportedKB) {
+			monitor.worked(kb - reportedKB);
+			reportedKB = kb;
+		}
+		monitor.subTask(String.format("%.1f of %.1f MB",
+				copiedBytes / (1024.0 * 1024.0), totalBytes / (1024.0 * 1024.0)));
+	}
+
+	private void checkCanceled() {
+		if (monitor.isCanceled())
+			throw new OperationCanceledException();
+	}
+}
@@ -49,7 +49,7 @@ public class DatabaseWizard extends Wizard {
 				? new Runner(config, page.getSelectedContent())
 				: new Runner(config);
 			getContainer().run(true, false, runner);
-			Navigator.refresh();
+			Navigator.refreshThen(() -> Navigator.select(config));
 			HistoryView.refresh();
 			CompareView.clear();
 			return true;
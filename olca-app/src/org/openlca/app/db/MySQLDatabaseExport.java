@@ -9,7 +9,6 @@ import org.openlca.core.database.Derby;
 import org.openlca.core.database.config.MySqlConfig;
 import org.openlca.io.olca.DatabaseImport;
 import org.openlca.util.Dirs;
-import org.zeroturnaround.zip.ZipUtil;
 
 public class MySQLDatabaseExport implements Runnable {
 
@@ -28,19 +27,23 @@ public class MySQLDatabaseExport implements Runnable {
 
 	@Override
 	public void run() {
+		Derby targetDb = null;
 		try {
 			var sourceDb = config.connect(Workspace.dbDir());
-			var targetDb = createTemporaryDb();
+			targetDb = createTemporaryDb();
 			var io = new DatabaseImport(sourceDb, targetDb);
 			io.run();
 			sourceDb.close();
 			targetDb.close();
-			ZipUtil.pack(targetDb.getDatabaseDirectory(), zolcaFile);
-			Dirs.delete(targetDb.getDatabaseDirectory());
+			DatabaseBackup.pack(targetDb.getDatabaseDirectory(), zolcaFile);
 			success = true;
 		} catch (Exception e) {
 			success = false;
 			ErrorReporter.on("failed export MySQL database as zolca-File", e);
+		} finally {
+			if (targetDb != null) {
+				Dirs.delete(targetDb.getDatabaseDirectory());
+			}
 		}
 	}
 
@@ -230,9 +230,8 @@ public abstract class ModelEditor<T extends RootEntity>
 				clone.category = Categories.removeLibraryFrom(clone.category);
 			}
 			clone.name = newName;
-			clone = dao.insert(clone);
-			App.open(clone);
-			Navigator.refresh();
+			var saved = dao.insert(clone);
+			Navigator.refreshThen(() -> App.open(saved));
 		} catch (Exception e) {
 			ErrorReporter.on("failed to save " + model + " as " + newName, e);
 		}
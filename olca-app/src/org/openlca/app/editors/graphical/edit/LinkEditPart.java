@@ -11,6 +11,7 @@ import org.eclipse.gef.editpolicies.ConnectionEditPolicy;
 import org.eclipse.gef.editpolicies.ConnectionEndpointEditPolicy;
 import org.eclipse.gef.requests.GroupRequest;
 import org.openlca.app.tools.graphics.figures.Connection;
+import org.openlca.app.tools.graphics.figures.LevelOfDetail;
 import org.openlca.app.editors.graphical.model.GraphLink;
 import org.openlca.app.editors.graphical.model.commands.DeleteLinkCommand;
 
@@ -61,6 +62,11 @@ public class LinkEditPart extends AbstractConnectionEditPart
 				graph) {
 			@Override
 			public void paint(Graphics g) {
+				// when the links are not distinguishable at the current scale,
+				// only one link is painted for each pair of nodes
+				if (LevelOfDetail.isReduced(g) && !isSelected()
+						&& !isFirstOfNodePair())
+					return;
 				setLineWidth(isSelected() ? 2 : 1);
 				super.paint(g);
 			}
@@ -69,6 +75,24 @@ public class LinkEditPart extends AbstractConnectionEditPart
 		return connection;
 	}
 
+	/**
+	 * Returns true if the link is the first link from its source node to its
+	 * target node.
+	 */
+	private boolean isFirstOfNodePair() {
+		var link = getModel();
+		var source = link.getSourceNode();
+		var target = link.getTargetNode();
+		if (source == null || target == null)
+			return true;
+		for (var other : source.getAllSourceConnections()) {
+			if (!(other instanceof GraphLink l) || l.getTargetNode() != target)
+				continue;
+			return l == link;
+		}
+		return true;
+	}
+
 	@Override
 	protected void createEditPolicies() {
 		installEditPolicy(EditPolicy.CONNECTION_ENDPOINTS_ROLE,
@@ -10,6 +10,7 @@ import org.openlca.app.editors.graphical.model.IOPane;
 import org.openlca.app.tools.graphics.themes.Theme;
 import org.openlca.app.tools.graphics.figures.ComponentFigure;
 import org.openlca.app.tools.graphics.figures.GridPos;
+import org.openlca.app.tools.graphics.figures.LevelOfDetail;
 
 import static org.openlca.app.editors.graphical.figures.ExchangeFigure.getPreferredAmountLabelSize;
 import static org.openlca.app.editors.graphical.figures.ExchangeFigure.getPreferredUnitLabelSize;
@@ -71,6 +72,29 @@ public class IOPaneFigure extends ComponentFigure {
 		super.paint(g);
 	}
 
+	/**
+	 * When the exchanges are not readable at the current scale, they are
+	 * painted as simple bars instead of labels.
+	 */
+	@Override
+	protected void paintChildren(Graphics g) {
+		if (!LevelOfDetail.isReduced(g)) {
+			super.paintChildren(g);
+			return;
+		}
+		var theme = pane.getGraph().getConfig().getTheme();
+		for (var child : contentPane.getChildren()) {
+			if (!(child instanceof ExchangeFigure figure))
+				continue;
+			var bounds = figure.getBounds().getShrinked(4, 3);
+			if (bounds.isEmpty())
+				continue;
+			g.setBackgroundColor(
+					theme.labelColor(figure.exchangeItem.flowType()));
+			g.fillRectangle(bounds);
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<ExchangeFigure> getChildren() {
@@ -110,8 +110,9 @@ public class ExchangeItem extends Component {
 		if (getGraph() == null || getGraph().getEditor() == null)
 			return false;
 
-		// In case the entity is dirty, the internal ID is also checked.
-		return getGraph().getEditor().isDirty(getNode().getEntity())
+		// In case the entity is dirty, the internal ID is also checked. We
+		// check this by ID so that the entity does not need to be loaded.
+		return getGraph().getEditor().getDirty(getNode().descriptor.id) != null
 				&& link.exchangeId == exchange.internalId;
 	}
 
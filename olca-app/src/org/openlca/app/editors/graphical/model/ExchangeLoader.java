@@ -0,0 +1,178 @@
+package org.openlca.app.editors.graphical.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.openlca.app.db.Cache;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.model.Exchange;
+import org.openlca.core.model.Flow;
+import org.openlca.core.model.Unit;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the exchanges of processes for the nodes of the graphical editor in
+ * batches. Instead of loading the full process entities one by one (which
+ * also loads all their lazy collections), the exchange rows of a set of
+ * processes are read with a single native query. From these rows, light
+ * exchange objects are created that contain the fields that are shown in the
+ * graph (flow, unit, amount, formula, direction) and the IDs that are needed
+ * for linking. The flows and units are taken from the entity cache.
+ * <p>
+ * These exchanges are only used for displaying a node. When a node is
+ * edited, the exchanges of its full process entity are used. As entities
+ * compare by ID, the exchanges of the entity can be matched with the light
+ * exchanges. Prefetched exchanges are removed from the loader when they are
+ * taken, so that a later request reads the current state from the database.
+ */
+class ExchangeLoader {
+
+	/** The maximum number of IDs in an IN clause. */
+	private static final int BATCH_SIZE = 1000;
+
+	private final IDatabase db;
+	private final Map<Long, List<Exchange>> exchanges = new HashMap<>();
+	private final Map<Long, Flow> refFlows = new HashMap<>();
+
+	ExchangeLoader(IDatabase db) {
+		this.db = db;
+	}
+
+	/**
+	 * Loads the exchanges of the given processes that are not loaded yet.
+	 */
+	void prefetch(Collection<Long> processIds) {
+		if (db == null || processIds == null || processIds.isEmpty())
+			return;
+		var ids = new ArrayList<Long>();
+		for (var id : new HashSet<>(processIds)) {
+			if (!exchanges.containsKey(id)) {
+				ids.add(id);
+			}
+		}
+		for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+			var batch = ids.subList(i, Math.min(ids.size(), i + BATCH_SIZE));
+			try {
+				load(batch);
+			} catch (Exception e) {
+				LoggerFactory.getLogger(getClass())
+						.error("failed to load exchanges of processes", e);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the exchanges of the given process and removes them from the
+	 * loader. If they were not prefetched, they are loaded directly.
+	 */
+	List<Exchange> take(long processId) {
+		if (!exchanges.containsKey(processId)) {
+			prefetch(List.of(processId));
+		}
+		var list = exchanges.remove(processId);
+		refFlows.remove(processId);
+		return list;
+	}
+
+	/**
+	 * Returns the reference flow of the given process if its exchanges were
+	 * prefetched, otherwise null.
+	 */
+	Flow refFlowOf(long processId) {
+		return refFlows.get(processId);
+	}
+
+	private void load(List<Long> processIds) {
+		var idList = processIds.stream()
+				.map(Long::toString)
+				.collect(Collectors.joining(","));
+
+		// collect the exchange rows
+		var rows = new ArrayList<Row>();
+		var flowIds = new HashSet<Long>();
+		var unitIds = new HashSet<Long>();
+		var sql = "select " +
+				/* 1 */ "id, " +
+				/* 2 */ "f_owner, " +
+				/* 3 */ "internal_id, " +
+				/* 4 */ "f_flow, " +
+				/* 5 */ "f_unit, " +
+				/* 6 */ "is_input, " +
+				/* 7 */ "avoided_product, " +
+				/* 8 */ "resulting_amount_value, " +
+				/* 9 */ "resulting_amount_formula, " +
+				/* 10 */ "f_default_provider from tbl_exchanges " +
+				"where f_owner in (" + idList + ")";
+		NativeSql.on(db).query(sql, r -> {
+			var row = new Row(
+					r.getLong(1),
+					r.getLong(2),
+					r.getInt(3),
+					r.getLong(4),
+					r.getLong(5),
+					r.getBoolean(6),
+					r.getBoolean(7),
+					r.getDouble(8),
+					r.getString(9),
+					r.getLong(10));
+			rows.add(row);
+			flowIds.add(row.flow);
+			unitIds.add(row.unit);
+			return true;
+		});
+
+		// the quantitative references of the processes
+		var refIds = new HashMap<Long, Long>();
+		var refSql = "select id, f_quantitative_reference from tbl_processes " +
+				"where id in (" + idList + ")";
+		NativeSql.on(db).query(refSql, r -> {
+			refIds.put(r.getLong(1), r.getLong(2));
+			return true;
+		});
+
+		// create the exchanges
+		var cache = Cache.getEntityCache();
+		var flows = cache.getAll(Flow.class, flowIds);
+		var units = cache.getAll(Unit.class, unitIds);
+		for (var id : processIds) {
+			exchanges.put(id, new ArrayList<>());
+		}
+		for (var row : rows) {
+			var e = new Exchange();
+			e.id = row.id;
+			e.internalId = row.internalId;
+			e.flow = flows.get(row.flow);
+			e.unit = units.get(row.unit);
+			e.isInput = row.isInput;
+			e.isAvoided = row.isAvoided;
+			e.amount = row.amount;
+			e.formula = row.formula;
+			e.defaultProviderId = row.provider;
+			exchanges.get(row.owner).add(e);
+			var refId = refIds.get(row.owner);
+			if (refId != null && refId == row.id && e.flow != null) {
+				refFlows.put(row.owner, e.flow);
+			}
+		}
+	}
+
+	private record Row(
+			long id,
+			long owner,
+			int internalId,
+			long flow,
+			long unit,
+			boolean isInput,
+			boolean isAvoided,
+			double amount,
+			String formula,
+			long provider) {
+	}
+}
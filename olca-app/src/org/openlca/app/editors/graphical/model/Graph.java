@@ -9,6 +9,7 @@ import org.openlca.app.db.Database;
 import org.openlca.app.editors.graphical.GraphConfig;
 import org.openlca.app.editors.graphical.GraphEditor;
 import org.openlca.app.editors.graphical.search.LinkSearchMap;
+import org.openlca.app.editors.systems.Connectivity;
 import org.openlca.app.tools.graphics.model.BaseComponent;
 import org.openlca.app.tools.graphics.model.Component;
 import org.openlca.core.matrix.cache.FlowTable;
@@ -33,7 +34,12 @@ public class Graph extends BaseComponent {
 	public Map<ProcessLink, GraphLink> mapProcessLinkToGraphLink = new HashMap<>();
 	public final FlowTable flows = FlowTable.create(Database.get());
 	private final Process referenceProcess;
-	private Node referenceNode;
+
+	/**
+	 * An index of the nodes by the IDs of their descriptors. It is updated
+	 * when nodes are added to or removed from the graph.
+	 */
+	private final Map<Long, Node> nodeIndex = new HashMap<>();
 
 	public Graph(GraphEditor editor) {
 		this.editor = editor;
@@ -43,11 +49,55 @@ public class Graph extends BaseComponent {
 	}
 
 	public Node getNode(long id) {
-		for (var node : getNodes()) {
-			if (node.descriptor != null && node.descriptor.id == id)
-				return node;
+		return nodeIndex.get(id);
+	}
+
+	@Override
+	public void addChild(Component child, int index) {
+		super.addChild(child, index);
+		indexNode(child);
+	}
+
+	@Override
+	public void addChildQuietly(Component child) {
+		super.addChildQuietly(child);
+		indexNode(child);
+	}
+
+	@Override
+	public void addChildren(List<Node> nodes) {
+		super.addChildren(nodes);
+		for (var node : nodes) {
+			indexNode(node);
+		}
+	}
+
+	@Override
+	public boolean removeChild(Component child) {
+		if (!super.removeChild(child))
+			return false;
+		unindexNode(child);
+		return true;
+	}
+
+	@Override
+	public boolean removeChildQuietly(Component child) {
+		if (!super.removeChildQuietly(child))
+			return false;
+		unindexNode(child);
+		return true;
+	}
+
+	private void indexNode(Component child) {
+		if (child instanceof Node node && node.descriptor != null) {
+			nodeIndex.put(node.descriptor.id, node);
+		}
+	}
+
+	private void unindexNode(Component child) {
+		if (child instanceof Node node && node.descriptor != null) {
+			nodeIndex.remove(node.descriptor.id, node);
 		}
-		return null;
 	}
 
 	public GraphLink getLink(ProcessLink processLink) {
@@ -55,7 +105,10 @@ public class Graph extends BaseComponent {
 	}
 
 	public void removeLink(ProcessLink link) {
-		getProductSystem().processLinks.remove(link);
+		var system = getProductSystem();
+		if (system.processLinks.remove(link)) {
+			Connectivity.linkRemoved(system, link);
+		}
 		linkSearch.remove(link);
 		var graphLink = mapProcessLinkToGraphLink.remove(link);
 		if (graphLink != null)
@@ -63,10 +116,9 @@ public class Graph extends BaseComponent {
 	}
 
 	public Node getReferenceNode() {
-		if (referenceNode == null) {
-			referenceNode = getNode(referenceProcess.id);
-		}
-		return referenceNode;
+		return referenceProcess != null
+				? getNode(referenceProcess.id)
+				: null;
 	}
 
 	public boolean isReferenceProcess(Node node) {
@@ -10,6 +10,7 @@ import org.openlca.app.editors.graphical.GraphFile;
 import org.openlca.app.editors.graphical.layouts.NodeLayoutInfo;
 import org.openlca.app.editors.graphical.layouts.StickyNoteLayoutInfo;
 import org.openlca.app.editors.graphical.model.commands.ExpandCommand;
+import org.openlca.core.database.ProcessDao;
 import org.openlca.core.model.*;
 import org.openlca.core.model.Process;
 import org.openlca.core.model.descriptors.Descriptor;
@@ -29,16 +30,28 @@ import static org.openlca.app.tools.graphics.model.Side.OUTPUT;
 public class GraphFactory {
 
 	private final GraphEditor editor;
+	private final ExchangeLoader loader = new ExchangeLoader(Database.get());
 
 	public GraphFactory(GraphEditor editor) {
 		this.editor = editor;
 	}
 
+	/**
+	 * Loads the exchanges of the given processes in a batch before nodes are
+	 * created for them, see {@link ExchangeLoader}.
+	 */
+	public void prefetch(Collection<Long> processIds) {
+		loader.prefetch(processIds);
+	}
+
 	public Node createNode(RootDescriptor descriptor, NodeLayoutInfo info) {
 		if (descriptor == null || descriptor.type == null)
 			return null;
 
 		var node = applyInfo(new Node(descriptor), info);
+		if (descriptor.type == ModelType.PROCESS) {
+			node.prefetchedRefFlow = loader.refFlowOf(descriptor.id);
+		}
 
 		// A Node (MinMaxGraphComponent) `minimized` attribute is by default true.
 		if (!node.isMinimized()) {
@@ -74,7 +87,17 @@ public class GraphFactory {
 		panes.put(INPUT_PROP, new IOPane(true));
 		panes.put(OUTPUT_PROP, new IOPane(false));
 
-		var exchanges = getExchanges(node.getEntity(), node.descriptor.type);
+		// as long as the process of a node is not edited, the exchanges are
+		// loaded without loading the full process
+		List<Exchange> exchanges = null;
+		if (node.descriptor.type == ModelType.PROCESS
+				&& !node.hasEntity()
+				&& editor.getDirty(node.descriptor.id) == null) {
+			exchanges = loader.take(node.descriptor.id);
+		}
+		if (exchanges == null) {
+			exchanges = getExchanges(node.getEntity(), node.descriptor.type);
+		}
 
 		// filter and sort the exchanges
 		exchanges.stream()
@@ -191,17 +214,10 @@ public class GraphFactory {
 		var system = editor.getProductSystem();
 		var referenceProcess = system.referenceProcess;
 
-		// Create the reference node.
-		if (referenceProcess != null) {
-			var refNodeInfo = getNodeInfo(nodeArray, referenceProcess.refId);
-			var descriptor = getDescriptor(referenceProcess.id);
-			var refNode = createNode(descriptor, refNodeInfo);
-			if (refNode != null) {
-				graph.addChild(refNode);
-			}
-		}
-
-		// Create other nodes.
+		// Read the layout information of the nodes in a single pass. The
+		// reference node is created first, so we collect the other nodes.
+		NodeLayoutInfo refNodeInfo = null;
+		var infos = new ArrayList<NodeLayoutInfo>(nodeArray.size());
 		for (var elem : nodeArray) {
 			if (!elem.isJsonObject())
 				continue;
@@ -209,13 +225,42 @@ public class GraphFactory {
 			var info = GraphFile.toNodeLayoutInfo(obj);
 			if (info == null)
 				continue;
-
-			// The reference should not be created again.
 			if (referenceProcess != null
-					&& Objects.equals(info.id, referenceProcess.refId))
+					&& Objects.equals(info.id, referenceProcess.refId)) {
+				if (refNodeInfo == null) {
+					refNodeInfo = info;
+				}
 				continue;
+			}
+			infos.add(info);
+		}
 
-			var descriptor = getDescriptor(info.id);
+		// Resolve the descriptors and load the exchanges of the processes in
+		// batches.
+		var descriptors = getDescriptors(system, infos);
+		var processIds = new ArrayList<Long>();
+		if (referenceProcess != null) {
+			processIds.add(referenceProcess.id);
+		}
+		for (var d : descriptors.values()) {
+			if (d.type == ModelType.PROCESS) {
+				processIds.add(d.id);
+			}
+		}
+		loader.prefetch(processIds);
+
+		// Create the reference node.
+		if (referenceProcess != null) {
+			var descriptor = getDescriptor(referenceProcess.id);
+			var refNode = createNode(descriptor, refNodeInfo);
+			if (refNode != null) {
+				graph.addChild(refNode);
+			}
+		}
+
+		// Create other nodes.
+		for (var info : infos) {
+			var descriptor = descriptors.get(info.id);
 			var node = createNode(descriptor, info);
 			if (node == null)
 				continue;
@@ -275,21 +320,6 @@ public class GraphFactory {
 		return graph;
 	}
 
-	private static NodeLayoutInfo getNodeInfo(JsonArray array, String id) {
-		var descriptor = getDescriptor(id);
-		if (descriptor != null) {
-			for (var elem : array) {
-				if (!elem.isJsonObject())
-					continue;
-				var obj = elem.getAsJsonObject();
-				var info = GraphFile.toNodeLayoutInfo(obj);
-				if (Objects.equals(info.id, descriptor.refId))
-					return info;
-			}
-		}
-		return null;
-	}
-
 	public static RootDescriptor getDescriptor(long id) {
 		var db = Database.get();
 		if (db == null)
@@ -302,6 +332,42 @@ public class GraphFactory {
 		return null;
 	}
 
+	/**
+	 * Returns the descriptors of the nodes of the given layout information
+	 * mapped by their reference IDs. The descriptors of the processes of the
+	 * product system are read with a single query; only the descriptors of
+	 * other types (product systems and results) and of nodes that are not in
+	 * the product system are read one by one.
+	 */
+	private static Map<String, RootDescriptor> getDescriptors(
+			ProductSystem system, List<NodeLayoutInfo> infos) {
+		var map = new HashMap<String, RootDescriptor>();
+		var db = Database.get();
+		if (db == null || infos.isEmpty())
+			return map;
+		var refIds = new HashSet<String>();
+		for (var info : infos) {
+			if (info.id != null) {
+				refIds.add(info.id);
+			}
+		}
+		var dao = new ProcessDao(db);
+		for (var d : dao.getDescriptors(system.processes)) {
+			if (refIds.contains(d.refId)) {
+				map.put(d.refId, d);
+			}
+		}
+		for (var refId : refIds) {
+			if (map.containsKey(refId))
+				continue;
+			var d = getDescriptor(refId);
+			if (d != null) {
+				map.put(refId, d);
+			}
+		}
+		return map;
+	}
+
 	static RootDescriptor getDescriptor(String refId) {
 		var db = Database.get();
 		if (db == null)
@@ -58,7 +58,14 @@ public class Node extends MinMaxComponent {
 	 * isOnlyChainingReferenceNode.
 	 */
 	public boolean wasExplored;
-	private final String comparisonLabel = Labels.name(getRefFlow());
+	private String comparisonLabel;
+
+	/**
+	 * The reference flow of the process when its exchanges were loaded in a
+	 * batch (see {@link ExchangeLoader}). It is used as long as the entity is
+	 * not loaded.
+	 */
+	Flow prefetchedRefFlow;
 	private final Map<Integer, Boolean> buttonStatus = new HashMap<>();
 
 	public Node(RootDescriptor descriptor) {
@@ -88,6 +95,13 @@ public class Node extends MinMaxComponent {
 		this.entity = entity;
 	}
 
+	/**
+	 * Returns true if the entity of this node was already loaded.
+	 */
+	boolean hasEntity() {
+		return entity != null;
+	}
+
 	public ExchangeItem getOutput(ProcessLink link) {
 		if (link == null)
 			return null;
@@ -427,10 +441,15 @@ public class Node extends MinMaxComponent {
 
 	@Override
 	public String getComparisonLabel() {
+		if (comparisonLabel == null) {
+			comparisonLabel = Labels.name(getRefFlow());
+		}
 		return comparisonLabel;
 	}
 
 	Flow getRefFlow() {
+		if (entity == null && prefetchedRefFlow != null)
+			return prefetchedRefFlow;
 		if (descriptor instanceof ProcessDescriptor) {
 			var process = (Process) getEntity();
 			if (process.quantitativeReference != null)
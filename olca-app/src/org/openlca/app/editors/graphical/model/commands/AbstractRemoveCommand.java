@@ -5,6 +5,7 @@ import org.openlca.app.editors.graphical.GraphEditor;
 import org.openlca.app.editors.graphical.model.Graph;
 import org.openlca.app.editors.graphical.model.GraphLink;
 import org.openlca.app.editors.graphical.model.Node;
+import org.openlca.app.editors.systems.Connectivity;
 import org.openlca.core.model.ProcessLink;
 
 import java.util.HashSet;
@@ -168,7 +169,10 @@ public abstract class AbstractRemoveCommand extends Command {
 	 */
 	protected void removeProcess(Long process) {
 		processes.add(process);
-		graph.getProductSystem().processes.remove(process);
+		var system = graph.getProductSystem();
+		if (system.processes.remove(process)) {
+			Connectivity.processRemoved(system, process);
+		}
 		var node = graph.getNode(process);
 		if (node != null) {
 			if (editor.isDirty(node.getEntity())) {
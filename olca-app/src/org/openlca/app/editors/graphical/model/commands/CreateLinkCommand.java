@@ -5,6 +5,7 @@ import org.openlca.app.M;
 import org.openlca.app.editors.graphical.model.ExchangeItem;
 import org.openlca.app.editors.graphical.model.Graph;
 import org.openlca.app.editors.graphical.model.GraphLink;
+import org.openlca.app.editors.systems.Connectivity;
 import org.openlca.core.model.FlowType;
 import org.openlca.core.model.ProcessLink;
 import org.openlca.core.model.ProductSystem;
@@ -38,6 +39,7 @@ public class CreateLinkCommand extends Command {
 		ProductSystem system = graph.getProductSystem();
 		processLink = getProcessLink();
 		system.processLinks.add(processLink);
+		Connectivity.linkAdded(system, processLink);
 		graph.linkSearch.put(processLink);
 		link = new GraphLink(processLink, source, target);
 		graph.mapProcessLinkToGraphLink.put(processLink, link);
@@ -9,6 +9,7 @@ import org.openlca.app.editors.graphical.GraphEditor;
 import org.openlca.app.editors.graphical.layouts.NodeLayoutInfo;
 import org.openlca.app.editors.graphical.model.Graph;
 import org.openlca.app.editors.graphical.model.Node;
+import org.openlca.app.editors.systems.Connectivity;
 import org.openlca.app.util.Labels;
 import org.openlca.core.model.ModelType;
 import org.openlca.core.model.descriptors.RootDescriptor;
@@ -46,6 +47,7 @@ public class CreateNodeCommand extends Command {
 		// Add the process to the product system.
 		var system = graph.getProductSystem();
 		if (system.processes.add(descriptor.id)) {
+			Connectivity.processAdded(system, descriptor.id);
 			// Add the process to the graph.
 			var location = constraint.getLocation();
 			var size = (new Dimension(-1, -1)).equals(constraint.getSize())
@@ -65,7 +67,9 @@ public class CreateNodeCommand extends Command {
 	public void undo() {
 		// Remove the process from the product system.
 		var system = graph.getProductSystem();
-		system.processes.remove(descriptor.id);
+		if (system.processes.remove(descriptor.id)) {
+			Connectivity.processRemoved(system, descriptor.id);
+		}
 		if (editor.isDirty(node.getEntity())) {
 			editor.removeDirty(node.getEntity());
 		}
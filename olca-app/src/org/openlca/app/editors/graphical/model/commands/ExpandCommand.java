@@ -10,6 +10,7 @@ import org.openlca.app.editors.graphical.model.Node;
 import org.openlca.core.model.FlowType;
 import org.openlca.core.model.ProcessLink;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.openlca.app.editors.graphical.model.Node.isInput;
@@ -63,6 +64,23 @@ public class ExpandCommand extends Command {
 				.map(l -> l.processLink)
 				.toList();
 
+		// load the exchanges of the new nodes in a batch
+		var newIds = new ArrayList<Long>();
+		for (ProcessLink pLink : links) {
+			FlowType type = graph.flows.type(pLink.flowId);
+			if (type == null || type == FlowType.ELEMENTARY_FLOW)
+				continue;
+			boolean isProvider = processID == pLink.providerId;
+			long otherID = isProvider ? pLink.processId : pLink.providerId;
+			boolean onSide = side == INPUT
+					? isInput(type, isProvider)
+					: isOutput(type, isProvider);
+			if (onSide && graph.getNode(otherID) == null) {
+				newIds.add(otherID);
+			}
+		}
+		editor.getGraphFactory().prefetch(newIds);
+
 		for (ProcessLink pLink : links) {
 			FlowType type = graph.flows.type(pLink.flowId);
 			if (type == null
@@ -7,6 +7,8 @@ import org.openlca.app.editors.graphical.GraphEditor;
 import org.openlca.app.editors.graphical.model.Graph;
 import org.openlca.app.editors.graphical.model.GraphLink;
 import org.openlca.app.editors.graphical.model.Node;
+import org.openlca.app.editors.systems.Connectivity;
+import org.openlca.core.model.ModelType;
 import org.openlca.core.model.ProcessLink;
 import org.openlca.core.model.descriptors.RootDescriptor;
 
@@ -55,6 +57,11 @@ public class MassCreationCommand extends Command {
 
 	@Override
 	public void execute() {
+		graph.editor.getGraphFactory().prefetch(toCreate.stream()
+				.filter(d -> d.type == ModelType.PROCESS
+						&& graph.getNode(d.id) == null)
+				.map(d -> d.id)
+				.toList());
 		for (RootDescriptor process : toCreate)
 			addNode(process);
 		for (ProcessLink link : newLinks)
@@ -71,7 +78,9 @@ public class MassCreationCommand extends Command {
 	}
 
 	private void addLink(ProcessLink link) {
-		graph.getProductSystem().processLinks.add(link);
+		var system = graph.getProductSystem();
+		system.processLinks.add(link);
+		Connectivity.linkAdded(system, link);
 		graph.linkSearch.put(link);
 
 		var graphLink = graph.getLink(link);
@@ -87,7 +96,10 @@ public class MassCreationCommand extends Command {
 		if (graph.getNode(descriptor.id) != null)
 			return;
 		var node = graph.editor.getGraphFactory().createNode(descriptor, null);
-		graph.getProductSystem().processes.add(descriptor.id);
+		var system = graph.getProductSystem();
+		if (system.processes.add(descriptor.id)) {
+			Connectivity.processAdded(system, descriptor.id);
+		}
 		graph.addChild(node);
 		createdNodes.add(node);
 	}
@@ -117,7 +129,10 @@ public class MassCreationCommand extends Command {
 	}
 
 	private void removeNodeQuietly(Node node) {
-		graph.getProductSystem().processes.remove(node.descriptor.id);
+		var system = graph.getProductSystem();
+		if (system.processes.remove(node.descriptor.id)) {
+			Connectivity.processRemoved(system, node.descriptor.id);
+		}
 		if (editor.isDirty(node.getEntity())) {
 			editor.removeDirty(node.getEntity());
 		}
@@ -6,6 +6,7 @@ import org.openlca.app.editors.graphical.model.ExchangeItem;
 import org.openlca.app.editors.graphical.model.Graph;
 import org.openlca.app.editors.graphical.model.GraphLink;
 import org.openlca.app.editors.graphical.model.Node;
+import org.openlca.app.editors.systems.Connectivity;
 import org.openlca.core.model.ProcessLink;
 import org.openlca.core.model.ProductSystem;
 
@@ -51,7 +52,8 @@ public class ReconnectLinkCommand extends Command {
 		processLink.processId = targetItem.getNode().descriptor.id;
 		processLink.exchangeId = targetItem.exchange.id;
 
-		graph.getProductSystem().processLinks.add(processLink);
+		system.processLinks.add(processLink);
+		Connectivity.linkAdded(system, processLink);
 		graph.linkSearch.put(processLink);
 		link = new GraphLink(processLink, sourceNode, targetItem);
 		graph.mapProcessLinkToGraphLink.put(processLink, link);
@@ -69,6 +71,7 @@ public class ReconnectLinkCommand extends Command {
 		graph.removeLink(oldLink.processLink);
 
 		system.processLinks.add(link.processLink);
+		Connectivity.linkAdded(system, link.processLink);
 		graph.linkSearch.put(link.processLink);
 		graph.mapProcessLinkToGraphLink.put(link.processLink, link);
 		link.reconnect();
@@ -81,6 +84,7 @@ public class ReconnectLinkCommand extends Command {
 		graph.removeLink(link.processLink);
 
 		system.processLinks.add(oldLink.processLink);
+		Connectivity.linkAdded(system, oldLink.processLink);
 		graph.linkSearch.put(oldLink.processLink);
 		graph.mapProcessLinkToGraphLink.put(oldLink.processLink, oldLink);
 		oldLink.reconnect();
@@ -10,6 +10,7 @@ import org.openlca.core.model.ProcessLink;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 
@@ -34,6 +35,14 @@ public class LinkSearchMap {
 	TLongObjectHashMap<TIntArrayList> connectionIndex;
 
 	ArrayList<ProcessLink> data;
+
+	/**
+	 * The positions of the links in the data list and the free positions of
+	 * removed links, so that links can be added and removed in constant time.
+	 */
+	private final HashMap<ProcessLink, Integer> positions = new HashMap<>();
+	private final TIntArrayList freePositions = new TIntArrayList();
+
 	private ArrayList<Long> wasExplored = new ArrayList<>();
 
 	public LinkSearchMap(Collection<ProcessLink> links) {
@@ -44,6 +53,7 @@ public class LinkSearchMap {
 		data = new ArrayList<>(links);
 		for (int i = 0; i < data.size(); i++) {
 			ProcessLink link = data.get(i);
+			positions.putIfAbsent(link, i);
 			index(link.providerId, i, providerIndex);
 			index(link.processId, i, connectionIndex);
 		}
@@ -133,22 +143,24 @@ public class LinkSearchMap {
 	}
 
 	public void put(ProcessLink link) {
-		int index = remove(link);
+		int index = unlink(link);
 		if (index == -1)
 			index = getAvailableIndex();
 		if (index < data.size())
 			data.set(index, link);
 		else
 			data.add(link);
+		positions.put(link, index);
 		index(link.providerId, index, providerIndex);
 		index(link.processId, index, connectionIndex);
 	}
 
 	private int getAvailableIndex() {
-		for (int index = 0; index < data.size(); index++)
-			if (data.get(index) == null) // previously removed link
-				return index;
-		return data.size();
+		// reuse the position of a previously removed link
+		int n = freePositions.size();
+		return n > 0
+				? freePositions.removeAt(n - 1)
+				: data.size();
 	}
 
 	public void removeAll(Collection<ProcessLink> links) {
@@ -157,9 +169,22 @@ public class LinkSearchMap {
 	}
 
 	public int remove(ProcessLink link) {
-		int index = data.indexOf(link);
-		if (index < 0)
+		int index = unlink(link);
+		if (index != -1) {
+			freePositions.add(index);
+		}
+		return index;
+	}
+
+	/**
+	 * Removes the link from the data list and the indices and returns its
+	 * former position, without releasing that position for new links.
+	 */
+	private int unlink(ProcessLink link) {
+		Integer pos = link != null ? positions.remove(link) : null;
+		if (pos == null)
 			return -1;
+		int index = pos;
 		data.set(index, null);
 		remove(link.providerId, index, providerIndex);
 		remove(link.processId, index, connectionIndex);
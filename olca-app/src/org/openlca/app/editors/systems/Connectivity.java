@@ -0,0 +1,374 @@
+package org.openlca.app.editors.systems;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.openlca.app.db.DatabaseDir;
+import org.openlca.core.model.ProcessLink;
+import org.openlca.core.model.ProductSystem;
+import org.openlca.jsonld.Json;
+import org.openlca.util.Dirs;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.hash.TLongHashSet;
+
+/**
+ * Stores the connectivity state of a product system in its database folder,
+ * so that the graph of the system does not need to be traversed again before
+ * each calculation. The state contains the set of processes that cannot be
+ * reached from the reference process (the unlinked processes) and a
+ * fingerprint of the system. The fingerprint is an order independent hash of
+ * the reference process, the processes, and the process links of the system.
+ * The stored state is only used when its fingerprint is equal to the
+ * fingerprint of the system, so it is never used for a system that was
+ * modified in another way.
+ * <p>
+ * Because the fingerprint is a sum of the hashes of its parts, it can be
+ * updated incrementally when processes or links are added or removed in the
+ * graph editor. Added links and processes can only make unlinked processes
+ * reachable. This is checked lazily, with a single pass over the links when
+ * the state is used or saved, so that a command that adds many processes and
+ * links only updates the fingerprint for each of them. When a link or process
+ * in the reachable part of the graph is removed, the state is marked as
+ * unknown and the next calculation runs the full check again.
+ * <p>
+ * The updates of the graph editor are only kept in memory. They are written
+ * when the product system is saved (see {@link #saved}), so that the stored
+ * state never describes unsaved changes of a system.
+ */
+public final class Connectivity {
+
+	private static final String FILE = "connectivity.json";
+
+	/** The cached states of the product systems by their files. */
+	private static final Map<File, State> states = new ConcurrentHashMap<>();
+
+	private Connectivity() {
+	}
+
+	/**
+	 * Returns the stored connectivity of the given product system if it is
+	 * valid for the current state of the system, otherwise null. A product
+	 * system is connected when every process can be reached from its
+	 * reference process following the process links.
+	 */
+	static Boolean getStored(ProductSystem system) {
+		var file = fileOf(system);
+		long fingerprint = fingerprintOf(system);
+		var state = stateOf(file);
+		if (state != null && state.fingerprint != fingerprint) {
+			// the state in memory can describe discarded changes of the
+			// graph editor; then the stored state may still be valid
+			states.remove(file);
+			state = stateOf(file);
+		}
+		if (state == null
+				|| state.unlinked == null
+				|| state.fingerprint != fingerprint)
+			return null;
+		state.applyRelink(system);
+		return state.unlinked.isEmpty();
+	}
+
+	/**
+	 * Writes the connectivity state of the given product system after the
+	 * system was saved, if there is a state in memory that matches it.
+	 */
+	public static void saved(ProductSystem system) {
+		if (system == null)
+			return;
+		try {
+			var file = fileOf(system);
+			var state = states.get(file);
+			if (state == null)
+				return;
+			if (state.fingerprint != fingerprintOf(system)) {
+				states.remove(file);
+				Files.deleteIfExists(file.toPath());
+				return;
+			}
+			state.applyRelink(system);
+			save(file, state);
+		} catch (Exception e) {
+			LoggerFactory.getLogger(Connectivity.class)
+					.error("failed to save connectivity state", e);
+		}
+	}
+
+	/**
+	 * Traverses the graph of the given product system, stores the resulting
+	 * connectivity state, and returns true if the system is connected.
+	 */
+	static boolean check(ProductSystem system) {
+		var graph = ProcessGraph.of(system);
+		int[] depths = graph.depthsFrom(system.referenceProcess != null
+				? graph.indexOf(system.referenceProcess.id)
+				: -1);
+		var unlinked = new TLongHashSet();
+		for (var id : system.processes) {
+			if (id == null)
+				continue;
+			int i = graph.indexOf(id);
+			if (i < 0 || depths[i] < 0) {
+				unlinked.add(id);
+			}
+		}
+		save(fileOf(system), new State(fingerprintOf(system), unlinked));
+		return unlinked.isEmpty();
+	}
+
+	/**
+	 * Updates the connectivity state when the given link was added to the
+	 * product system.
+	 */
+	public static void linkAdded(ProductSystem system, ProcessLink link) {
+		update(system, state -> {
+			state.fingerprint += hashOf(link);
+			if (state.unlinked != null && !state.unlinked.isEmpty()) {
+				state.relink = true;
+			}
+		});
+	}
+
+	/**
+	 * Updates the connectivity state when the given link was removed from the
+	 * product system.
+	 */
+	public static void linkRemoved(ProductSystem system, ProcessLink link) {
+		update(system, state -> {
+			state.fingerprint -= hashOf(link);
+			if (state.unlinked == null)
+				return;
+			// removing a link in the unlinked part of the graph cannot change
+			// the connectivity; otherwise, it needs to be checked again
+			if (!state.unlinked.contains(link.providerId)
+					&& !state.unlinked.contains(link.processId)) {
+				state.unlinked = null;
+				state.relink = false;
+			}
+		});
+	}
+
+	/**
+	 * Updates the connectivity state when the given process was added to the
+	 * product system.
+	 */
+	public static void processAdded(ProductSystem system, long processId) {
+		update(system, state -> {
+			state.fingerprint += hashOf(processId);
+			if (state.unlinked == null)
+				return;
+			state.unlinked.add(processId);
+			state.relink = true;
+		});
+	}
+
+	/**
+	 * Updates the connectivity state when the given process was removed from
+	 * the product system.
+	 */
+	public static void processRemoved(ProductSystem system, long processId) {
+		update(system, state -> {
+			state.fingerprint -= hashOf(processId);
+			if (state.unlinked != null && !state.unlinked.remove(processId)) {
+				state.unlinked = null;
+				state.relink = false;
+			}
+		});
+	}
+
+	/**
+	 * Updates the state of the given system in memory; it is written when the
+	 * system is saved.
+	 */
+	private static void update(ProductSystem system, Consumer<State> fn) {
+		if (system == null)
+			return;
+		try {
+			var file = fileOf(system);
+			var state = stateOf(file);
+			if (state == null)
+				return;
+			fn.accept(state);
+		} catch (Exception e) {
+			LoggerFactory.getLogger(Connectivity.class)
+					.error("failed to update connectivity state", e);
+		}
+	}
+
+	/**
+	 * Removes the processes from the given set of unlinked processes that are
+	 * now linked to a reachable process, directly or via other unlinked
+	 * processes. This needs one pass over the links of the system.
+	 */
+	private static void relink(ProductSystem system, TLongHashSet unlinked) {
+		var providers = new TLongObjectHashMap<TLongArrayList>();
+		var queue = new ArrayDeque<Long>();
+		for (var link : system.processLinks) {
+			if (!unlinked.contains(link.providerId))
+				continue;
+			if (unlinked.contains(link.processId)) {
+				var list = providers.get(link.processId);
+				if (list == null) {
+					list = new TLongArrayList();
+					providers.put(link.processId, list);
+				}
+				list.add(link.providerId);
+			} else if (system.processes.contains(link.processId)) {
+				queue.add(link.providerId);
+			}
+		}
+		while (!queue.isEmpty()) {
+			long next = queue.poll();
+			if (!unlinked.remove(next))
+				continue;
+			var list = providers.get(next);
+			if (list == null)
+				continue;
+			for (int i = 0; i < list.size(); i++) {
+				queue.add(list.get(i));
+			}
+		}
+	}
+
+	static long fingerprintOf(ProductSystem system) {
+		long hash = system.referenceProcess != null
+				? mix(system.referenceProcess.id)
+				: 0;
+		for (var id : system.processes) {
+			if (id != null) {
+				hash += hashOf(id);
+			}
+		}
+		for (var link : system.processLinks) {
+			hash += hashOf(link);
+		}
+		return hash;
+	}
+
+	private static long hashOf(long processId) {
+		return mix(processId ^ 0x5bd1e995L);
+	}
+
+	private static long hashOf(ProcessLink link) {
+		long h = mix(link.providerId);
+		h = mix(h ^ link.processId);
+		h = mix(h ^ link.flowId);
+		return mix(h ^ link.exchangeId);
+	}
+
+	/** The finalizer of the SplitMix64 generator. */
+	private static long mix(long x) {
+		x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+		x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+		return x ^ (x >>> 31);
+	}
+
+	private static File fileOf(ProductSystem system) {
+		return new File(DatabaseDir.getDir(system), FILE);
+	}
+
+	private static State stateOf(File file) {
+		var state = states.get(file);
+		if (state != null)
+			return state;
+		if (!file.exists())
+			return null;
+		try {
+			var json = Json.readObject(file).orElse(null);
+			if (json == null)
+				return null;
+			state = State.fromJson(json);
+			if (state != null) {
+				states.put(file, state);
+			}
+			return state;
+		} catch (Exception e) {
+			LoggerFactory.getLogger(Connectivity.class)
+					.error("failed to read connectivity state " + file, e);
+			return null;
+		}
+	}
+
+	private static void save(File file, State state) {
+		states.put(file, state);
+		try {
+			Dirs.createIfAbsent(file.getParentFile());
+			Json.write(state.toJson(), file);
+		} catch (Exception e) {
+			LoggerFactory.getLogger(Connectivity.class)
+					.error("failed to write connectivity state " + file, e);
+			try {
+				states.remove(file);
+				Files.deleteIfExists(file.toPath());
+			} catch (Exception ignored) {
+			}
+		}
+	}
+
+	private static class State {
+
+		long fingerprint;
+
+		/** The unlinked processes; null if the connectivity is unknown. */
+		TLongHashSet unlinked;
+
+		/**
+		 * True when processes or links were added so that some of the unlinked
+		 * processes may be reachable now.
+		 */
+		boolean relink;
+
+		State(long fingerprint, TLongHashSet unlinked) {
+			this.fingerprint = fingerprint;
+			this.unlinked = unlinked;
+		}
+
+		void applyRelink(ProductSystem system) {
+			if (!relink)
+				return;
+			relink = false;
+			if (unlinked != null && !unlinked.isEmpty()) {
+				Connectivity.relink(system, unlinked);
+			}
+		}
+
+		JsonObject toJson() {
+			var json = new JsonObject();
+			json.addProperty("fingerprint", fingerprint);
+			if (unlinked != null) {
+				var array = new JsonArray();
+				for (long id : unlinked.toArray()) {
+					array.add(new JsonPrimitive(id));
+				}
+				json.add("unlinked", array);
+			}
+			return json;
+		}
+
+		static State fromJson(JsonObject json) {
+			var fingerprint = json.get("fingerprint");
+			if (fingerprint == null || !fingerprint.isJsonPrimitive())
+				return null;
+			TLongHashSet unlinked = null;
+			var array = json.get("unlinked");
+			if (array != null && array.isJsonArray()) {
+				unlinked = new TLongHashSet();
+				for (var id : array.getAsJsonArray()) {
+					unlinked.add(id.getAsLong());
+				}
+			}
+			return new State(fingerprint.getAsLong(), unlinked);
+		}
+	}
+}
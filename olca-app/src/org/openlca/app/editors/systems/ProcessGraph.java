@@ -0,0 +1,267 @@
+package org.openlca.app.editors.systems;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.openlca.core.model.ProcessLink;
+import org.openlca.core.model.ProductSystem;
+
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TLongIntHashMap;
+
+/**
+ * The link structure of a product system as a directed graph over primitive
+ * arrays. The processes of the system are mapped to dense indices and the
+ * links are stored in compressed sparse row (CSR) format: for each process,
+ * the distinct providers that are linked to its inputs (in-edges). For the
+ * out-edges, only the offsets are kept to get the out-degrees. All
+ * analyses run in linear time of the number of processes and links, which
+ * keeps them fast also for large product systems with hundreds of thousands
+ * of links.
+ */
+class ProcessGraph {
+
+	private final long[] ids;
+	private final TLongIntHashMap index;
+
+	private final int[] inOffsets;
+	private final int[] inTargets;
+	private final int[] outOffsets;
+
+	private ProcessGraph(long[] ids, TLongIntHashMap index,
+			int[][] in, int[][] out) {
+		this.ids = ids;
+		this.index = index;
+		this.inOffsets = in[0];
+		this.inTargets = in[1];
+		this.outOffsets = out[0];
+	}
+
+	static ProcessGraph of(ProductSystem system) {
+
+		// map the processes and link ends to dense indices
+		var index = new TLongIntHashMap(
+				Math.max(16, system.processes.size() * 2), 0.5f, -1L, -1);
+		var ids = new TLongArrayList(system.processes.size());
+		for (var id : system.processes) {
+			if (id != null) {
+				nodeOf(id, index, ids);
+			}
+		}
+		if (system.referenceProcess != null) {
+			nodeOf(system.referenceProcess.id, index, ids);
+		}
+
+		int m = system.processLinks.size();
+		var providers = new int[m];
+		var recipients = new int[m];
+		int k = 0;
+		for (ProcessLink link : system.processLinks) {
+			providers[k] = nodeOf(link.providerId, index, ids);
+			recipients[k] = nodeOf(link.processId, index, ids);
+			k++;
+		}
+
+		int n = ids.size();
+		var in = csr(n, recipients, providers);
+		var out = csr(n, providers, recipients);
+		return new ProcessGraph(ids.toArray(), index, in, out);
+	}
+
+	private static int nodeOf(long id, TLongIntHashMap index, TLongArrayList ids) {
+		int i = index.get(id);
+		if (i >= 0)
+			return i;
+		i = ids.size();
+		ids.add(id);
+		index.put(id, i);
+		return i;
+	}
+
+	/**
+	 * Creates the CSR arrays {offsets, targets} of the edges from the given
+	 * sources to the given targets. Parallel edges, e.g. when a provider is
+	 * linked to multiple inputs of a process, are stored only once.
+	 */
+	private static int[][] csr(int n, int[] sources, int[] targets) {
+		var offsets = new int[n + 1];
+		for (int source : sources) {
+			offsets[source + 1]++;
+		}
+		for (int i = 0; i < n; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		var next = Arrays.copyOf(offsets, n);
+		var edges = new int[sources.length];
+		for (int i = 0; i < sources.length; i++) {
+			edges[next[sources[i]]++] = targets[i];
+		}
+
+		// sort the rows and remove duplicates in place
+		int pos = 0;
+		int start = 0;
+		for (int i = 0; i < n; i++) {
+			int end = offsets[i + 1];
+			Arrays.sort(edges, start, end);
+			offsets[i] = pos;
+			for (int j = start; j < end; j++) {
+				if (j == start || edges[j] != edges[j - 1]) {
+					edges[pos++] = edges[j];
+				}
+			}
+			start = end;
+		}
+		offsets[n] = pos;
+		return new int[][]{offsets, Arrays.copyOf(edges, pos)};
+	}
+
+	/** The number of processes (nodes) in the graph. */
+	int size() {
+		return ids.length;
+	}
+
+	long idOf(int i) {
+		return ids[i];
+	}
+
+	/** Returns the index of the given process, or -1 if it is not a node. */
+	int indexOf(long id) {
+		return index.get(id);
+	}
+
+	/** The number of distinct providers that are linked to the process. */
+	int inDegree(int i) {
+		return inOffsets[i + 1] - inOffsets[i];
+	}
+
+	/** The number of distinct recipients that are linked to the process. */
+	int outDegree(int i) {
+		return outOffsets[i + 1] - outOffsets[i];
+	}
+
+	/**
+	 * Runs a breadth-first search from the given process following the
+	 * in-edges (from the recipients to their providers) and returns the depth
+	 * of each process in the supply chain; -1 if it is not reachable.
+	 */
+	int[] depthsFrom(int start) {
+		var depths = new int[ids.length];
+		Arrays.fill(depths, -1);
+		if (start < 0)
+			return depths;
+		var visited = new BitSet(ids.length);
+		var queue = new int[ids.length];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = start;
+		visited.set(start);
+		depths[start] = 0;
+		while (head < tail) {
+			int node = queue[head++];
+			for (int e = inOffsets[node]; e < inOffsets[node + 1]; e++) {
+				int provider = inTargets[e];
+				if (visited.get(provider))
+					continue;
+				visited.set(provider);
+				depths[provider] = depths[node] + 1;
+				queue[tail++] = provider;
+			}
+		}
+		return depths;
+	}
+
+	/**
+	 * Computes the strongly connected components of the graph with an
+	 * iterative version of Tarjan's algorithm. A component is cyclic when it
+	 * has more than one process or when its process is linked to itself.
+	 */
+	Components components() {
+		int n = ids.length;
+		var order = new int[n];
+		var low = new int[n];
+		Arrays.fill(order, -1);
+		var onStack = new BitSet(n);
+		var stack = new int[n];
+		int sp = 0;
+		var callNodes = new int[n];
+		var callEdges = new int[n];
+		int counter = 0;
+
+		int count = 0;
+		int cyclicCount = 0;
+		int cyclicNodes = 0;
+		int largest = 0;
+
+		for (int root = 0; root < n; root++) {
+			if (order[root] >= 0)
+				continue;
+			int depth = 0;
+			callNodes[0] = root;
+			callEdges[0] = inOffsets[root];
+			order[root] = low[root] = counter++;
+			stack[sp++] = root;
+			onStack.set(root);
+
+			while (depth >= 0) {
+				int node = callNodes[depth];
+				int e = callEdges[depth];
+				if (e < inOffsets[node + 1]) {
+					callEdges[depth]++;
+					int next = inTargets[e];
+					if (order[next] < 0) {
+						order[next] = low[next] = counter++;
+						stack[sp++] = next;
+						onStack.set(next);
+						depth++;
+						callNodes[depth] = next;
+						callEdges[depth] = inOffsets[next];
+					} else if (onStack.get(next)) {
+						low[node] = Math.min(low[node], order[next]);
+					}
+					continue;
+				}
+
+				// all edges of the node are visited
+				if (low[node] == order[node]) {
+					int size = 0;
+					int member;
+					do {
+						member = stack[--sp];
+						onStack.clear(member);
+						size++;
+					} while (member != node);
+					count++;
+					largest = Math.max(largest, size);
+					if (size > 1 || hasSelfLink(node)) {
+						cyclicCount++;
+						cyclicNodes += size;
+					}
+				}
+				depth--;
+				if (depth >= 0) {
+					int parent = callNodes[depth];
+					low[parent] = Math.min(low[parent], low[node]);
+				}
+			}
+		}
+		return new Components(count, cyclicCount, cyclicNodes, largest);
+	}
+
+	private boolean hasSelfLink(int node) {
+		int pos = Arrays.binarySearch(
+				inTargets, inOffsets[node], inOffsets[node + 1], node);
+		return pos >= 0;
+	}
+
+	/**
+	 * The result of the component analysis.
+	 *
+	 * @param count        the number of strongly connected components
+	 * @param cyclicCount  the number of components that contain cycles
+	 * @param cyclicNodes  the number of processes that are part of a cycle
+	 * @param largest      the number of processes in the largest component
+	 */
+	record Components(int count, int cyclicCount, int cyclicNodes, int largest) {
+	}
+
+}
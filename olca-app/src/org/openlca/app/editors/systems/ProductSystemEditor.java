@@ -89,6 +89,7 @@ public class ProductSystemEditor extends ModelEditor<ProductSystem> {
 			GraphFile.save(graphEditor);
 		}
 		super.doSave(monitor);
+		Connectivity.saved(getModel());
 	}
 
 }
@@ -1,12 +1,10 @@
 package org.openlca.app.editors.systems;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
-import java.util.Queue;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
 
 import org.openlca.app.db.Database;
 import org.openlca.app.util.ErrorReporter;
@@ -25,10 +23,8 @@ import org.openlca.core.model.descriptors.RootDescriptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
-
 import gnu.trove.map.hash.TLongLongHashMap;
+import gnu.trove.set.hash.TLongHashSet;
 
 class Statistics {
 
@@ -43,19 +39,67 @@ class Statistics {
 	List<LinkDegree> topInDegrees;
 	List<LinkDegree> topOutDegrees;
 
+	int componentCount;
+	int cyclicComponentCount;
+	int processesInCycles;
+	int largestComponentSize;
+
+	/**
+	 * The number of processes per depth in the supply chain of the reference
+	 * process; the reference process has the depth 0.
+	 */
+	int[] depthHistogram;
+
 	int singleProviderLinkCount;
 	int defaultProviderLinkCount;
 	int multiProviderLinkCount;
 
+	/**
+	 * Is set to true when the provider information, which requires database
+	 * queries, was collected.
+	 */
+	volatile boolean hasProviderInfos;
+
 	private Statistics(ProductSystem system, EntityCache cache) {
 		this.system = system;
 		this.cache = cache;
 	}
 
-	public static Statistics calculate(ProductSystem system, EntityCache cache) {
+	/**
+	 * Creates a copy of the given product system with the reference process,
+	 * processes, and links that are used in the statistics. This should be
+	 * called in the UI thread before the statistics are calculated in the
+	 * background, so that the calculation does not see concurrent changes of
+	 * the editor.
+	 */
+	static ProductSystem snapshotOf(ProductSystem system) {
+		var copy = new ProductSystem();
+		copy.id = system.id;
+		copy.refId = system.refId;
+		copy.name = system.name;
+		copy.referenceProcess = system.referenceProcess;
+		copy.processes.addAll(system.processes);
+		copy.processLinks.addAll(system.processLinks);
+		return copy;
+	}
+
+	/**
+	 * Calculates the statistics of the given product system. The graph
+	 * statistics are calculated first; when they are available, the given
+	 * callback (if not null) is called with the partial statistics before the
+	 * provider information is collected from the database. This method should
+	 * be called in a background thread; the callback is also called from that
+	 * thread.
+	 */
+	public static Statistics calculate(ProductSystem system,
+		EntityCache cache, Consumer<Statistics> onGraphStatistics) {
 		var statistics = new Statistics(system, cache);
 		try {
-			statistics.calculate();
+			statistics.calculateGraphStatistics();
+			if (onGraphStatistics != null) {
+				onGraphStatistics.accept(statistics);
+			}
+			statistics.collectProviderInfos(Database.get());
 		} catch (Exception e) {
 			ErrorReporter.on(
 				"Failed to calculate product system statistics for " + system, e);
@@ -63,23 +107,31 @@ class Statistics {
 		return statistics;
 	}
 
-	private void calculate() {
+	private void calculateGraphStatistics() {
 		processCount = system.processes.size();
 		linkCount = system.processLinks.size();
 		refProcess = Descriptor.of(system.referenceProcess);
-		HashSet<LongPair> processProducts = new HashSet<>();
-		Multimap<Long, Long> inEdges = HashMultimap.create();
-		Multimap<Long, Long> outEdges = HashMultimap.create();
+		var processProducts = new HashSet<LongPair>();
 		for (var link : system.processLinks) {
 			processProducts.add(LongPair.of(link.providerId, link.flowId));
-			inEdges.put(link.processId, link.providerId);
-			outEdges.put(link.providerId, link.processId);
 		}
 		techMatrixSize = processProducts.size();
-		connectedGraph = isConnectedGraph(inEdges);
-		topInDegrees = calculateMostLinked(inEdges, 5);
-		topOutDegrees = calculateMostLinked(outEdges, 5);
-		collectProviderInfos(system, Database.get());
+
+		var graph = ProcessGraph.of(system);
+		int[] depths = graph.depthsFrom(system.referenceProcess != null
+			? graph.indexOf(system.referenceProcess.id)
+			: -1);
+		connectedGraph = isConnectedGraph(graph, depths);
+		depthHistogram = histogramOf(depths);
+
+		var components = graph.components();
+		componentCount = components.count();
+		cyclicComponentCount = components.cyclicCount();
+		processesInCycles = components.cyclicNodes();
+		largestComponentSize = components.largest();
+
+		topInDegrees = calculateMostLinked(graph, graph::inDegree, 5);
+		topOutDegrees = calculateMostLinked(graph, graph::outDegree, 5);
 	}
 
 	/**
@@ -87,81 +139,84 @@ class Statistics {
 	 * product system traversing the graph starting from the reference process and
 	 * following the incoming process links.
 	 */
-	private boolean isConnectedGraph(Multimap<Long, Long> inEdges) {
+	private boolean isConnectedGraph(ProcessGraph graph, int[] depths) {
 		if (system.referenceProcess == null)
 			return false;
-		HashMap<Long, Boolean> visited = new HashMap<>();
-		Queue<Long> queue = new ArrayDeque<>();
-		queue.add(system.referenceProcess.id);
-		while (!queue.isEmpty()) {
-			Long recipient = queue.poll();
-			visited.put(recipient, Boolean.TRUE);
-			for (Long provider : inEdges.get(recipient)) {
-				Boolean state = visited.get(provider);
-				if (!Objects.equals(state, Boolean.TRUE)
-					&& !queue.contains(provider))
-					queue.add(provider);
-			}
-		}
 		for (Long processId : system.processes) {
-			Boolean val = visited.get(processId);
-			if (!Objects.equals(val, Boolean.TRUE))
+			if (processId == null)
+				continue;
+			int i = graph.indexOf(processId);
+			if (i < 0 || depths[i] < 0)
 				return false;
 		}
 		return true;
 	}
 
+	private int[] histogramOf(int[] depths) {
+		int max = -1;
+		for (int depth : depths) {
+			max = Math.max(max, depth);
+		}
+		var histogram = new int[max + 1];
+		for (int depth : depths) {
+			if (depth >= 0) {
+				histogram[depth]++;
+			}
+		}
+		return histogram;
+	}
+
 	private List<LinkDegree> calculateMostLinked(
-		Multimap<Long, Long> edges, int maxSize) {
-		Long[] keys = new Long[maxSize];
+		ProcessGraph graph, IntUnaryOperator degreeOf, int maxSize) {
+		long[] keys = new long[maxSize];
 		int[] degrees = new int[maxSize];
-		for (Long id : edges.keySet()) {
-			int degree = edges.get(id).size();
+		for (int node = 0; node < graph.size(); node++) {
+			int degree = degreeOf.applyAsInt(node);
 			if (degree == 0)
 				continue;
-			Long key = id;
+			long key = graph.idOf(node);
 			for (int i = 0; i < maxSize; i++) {
 				if (degree <= degrees[i])
 					continue;
-				if (keys[i] == null) {
-					keys[i] = key;
-					degrees[i] = degree;
+				long swapKey = keys[i];
+				int swapDegree = degrees[i];
+				keys[i] = key;
+				degrees[i] = degree;
+				key = swapKey;
+				degree = swapDegree;
+				if (degree == 0)
 					break;
-				} else {
-					Long swapKey = keys[i];
-					int swapDegree = degrees[i];
-					keys[i] = key;
-					degrees[i] = degree;
-					key = swapKey;
-					degree = swapDegree;
-				}
 			}
 		}
 		return createLinkValues(keys, degrees);
 	}
 
-	private List<LinkDegree> createLinkValues(Long[] ids, int[] degrees) {
+	private List<LinkDegree> createLinkValues(long[] ids, int[] degrees) {
 		var linkValues = new ArrayList<LinkDegree>();
 		for (int i = 0; i < ids.length; i++) {
-			Long id = ids[i];
-			if (id == null)
+			if (degrees[i] == 0)
 				break;
-			linkValues.add(LinkDegree.of(id, cache, degrees[i]));
+			linkValues.add(LinkDegree.of(ids[i], cache, degrees[i]));
 		}
 		return linkValues;
 	}
 
-	private void collectProviderInfos(ProductSystem system, IDatabase db) {
+	private void collectProviderInfos(IDatabase db) {
 
+		// only the default providers of the linked exchanges are needed
+		var exchangeIds = new TLongHashSet(system.processLinks.size());
+		for (var link : system.processLinks) {
+			exchangeIds.add(link.exchangeId);
+		}
 		var defaults = new TLongLongHashMap();
-		String query = "select id, f_default_provider from tbl_exchanges";
+		String query = "select id, f_default_provider from tbl_exchanges " +
+			"where f_default_provider <> 0";
 		try {
 			NativeSql.on(db).query(query, r -> {
-				long defprov = r.getLong(2);
-				if (defprov == 0L)
-					return true;
 				long eid = r.getLong(1);
-				defaults.put(eid, defprov);
+				if (!exchangeIds.contains(eid))
+					return true;
+				defaults.put(eid, r.getLong(2));
 				return true;
 			});
 		} catch (Exception e) {
@@ -169,21 +224,28 @@ class Statistics {
 			log.error("Failed to collect default providers", e);
 		}
 
+		int defaultCount = 0;
+		int singleCount = 0;
+		int multiCount = 0;
 		var ptable = ProcessTable.create(db);
 		for (ProcessLink link : system.processLinks) {
 			long defaultP = defaults.get(link.exchangeId);
 			if (defaultP == link.providerId) {
-				defaultProviderLinkCount++;
+				defaultCount++;
 			}
 			var products = ptable.getProviders(link.flowId);
 			if (products == null || products.isEmpty())
 				continue;
 			if (products.size() == 1) {
-				singleProviderLinkCount++;
+				singleCount++;
 			} else {
-				multiProviderLinkCount++;
+				multiCount++;
 			}
 		}
+		defaultProviderLinkCount = defaultCount;
+		singleProviderLinkCount = singleCount;
+		multiProviderLinkCount = multiCount;
+		hasProviderInfos = true;
 	}
 
 	record LinkDegree(int degree, RootDescriptor process) {
@@ -3,6 +3,7 @@ package org.openlca.app.editors.systems;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -39,6 +40,7 @@ class StatisticsPage extends ModelPage<ProductSystem> {
 
 	private final List<Runnable> updates = new ArrayList<>();
 	private Statistics stats;
+	private int run;
 	private ScrolledForm form;
 	private TableViewer inLinkTable;
 	private TableViewer outLinkTable;
@@ -57,6 +59,7 @@ class StatisticsPage extends ModelPage<ProductSystem> {
 		var tk = form.getToolkit();
 		var body = UI.body(this.form, tk);
 		generalSection(tk, body);
+		graphSection(tk, body);
 		providerSection(tk, body);
 		linkDegreeTable(body, tk, true);
 		linkDegreeTable(body, tk, false);
@@ -100,21 +103,73 @@ class StatisticsPage extends ModelPage<ProductSystem> {
 		Controls.onSelect(btn, e -> calculate());
 	}
 
+	private void graphSection(FormToolkit tk, Composite body) {
+		Composite comp = UI.formSection(body, tk, "Graph structure");
+		UI.gridLayout(comp, 2, 15, 10);
+
+		UI.label(comp, tk, "Strongly connected components");
+		bind(UI.label(comp, tk, ""),
+			label -> label.setText(Integer.toString(stats.componentCount)));
+
+		UI.label(comp, tk, "Components with cycles");
+		bind(UI.label(comp, tk, ""),
+			label -> label.setText(Integer.toString(stats.cyclicComponentCount)));
+
+		UI.label(comp, tk, "Processes in cycles");
+		bind(UI.label(comp, tk, ""),
+			label -> label.setText(Integer.toString(stats.processesInCycles)));
+
+		UI.label(comp, tk, "Processes in the largest component");
+		bind(UI.label(comp, tk, ""),
+			label -> label.setText(Integer.toString(stats.largestComponentSize)));
+
+		UI.label(comp, tk, "Maximum supply chain depth");
+		bind(UI.label(comp, tk, ""), label -> {
+			int depth = stats.depthHistogram != null
+				? stats.depthHistogram.length - 1
+				: -1;
+			label.setText(depth >= 0 ? Integer.toString(depth) : "-");
+		});
+
+		UI.label(comp, tk, "Processes per supply chain depth");
+		bind(UI.label(comp, tk, ""), label -> {
+			var histogram = stats.depthHistogram;
+			if (histogram == null || histogram.length == 0) {
+				label.setText("-");
+				return;
+			}
+			var text = new StringBuilder();
+			for (int depth = 0; depth < histogram.length; depth++) {
+				if (depth > 0) {
+					text.append(depth % 10 == 0 ? "\n" : ", ");
+				}
+				text.append(depth).append(": ").append(histogram[depth]);
+			}
+			label.setText(text.toString());
+		});
+	}
+
 	private void providerSection(FormToolkit tk, Composite body) {
 		Composite comp = UI.formSection(body, tk, "Provider linking");
 		UI.gridLayout(comp, 2, 15, 10);
 
 		UI.label(comp, tk, "Links that are linked with default providers");
 		bind(UI.label(comp, tk, ""),
-			label -> label.setText(Integer.toString(stats.defaultProviderLinkCount)));
+			label -> label.setText(providerCount(stats.defaultProviderLinkCount)));
 
 		UI.label(comp, tk, "Links with exactly one possible provider");
 		bind(UI.label(comp, tk, ""),
-			label -> label.setText(Integer.toString(stats.singleProviderLinkCount)));
+			label -> label.setText(providerCount(stats.singleProviderLinkCount)));
 
 		UI.label(comp, tk, "Links with multiple possible providers");
 		bind(UI.label(comp, tk, ""),
-			label -> label.setText(Integer.toString(stats.multiProviderLinkCount)));
+			label -> label.setText(providerCount(stats.multiProviderLinkCount)));
+	}
+
+	private String providerCount(int count) {
+		return stats.hasProviderInfos
+			? Integer.toString(count)
+			: "...";
 	}
 
 	private void linkDegreeTable(Composite body, FormToolkit tk, boolean inDegree) {
@@ -150,19 +205,35 @@ class StatisticsPage extends ModelPage<ProductSystem> {
 		}
 	}
 
+	/**
+	 * Calculates the statistics in the background. The graph statistics are
+	 * shown as soon as they are available, the provider information when the
+	 * respective database queries are finished. The processes and links are
+	 * copied here in the UI thread, as they can be changed in the editor while
+	 * the statistics are calculated.
+	 */
 	private void calculate() {
-		App.runWithProgress("Updating statistics ...",
-			() -> stats = Statistics.calculate(getModel(), Cache.getEntityCache()),
-			() -> {
-				if (stats != null) {
-					for (Runnable update : updates) {
-						update.run();
-					}
-					inLinkTable.setInput(stats.topInDegrees);
-					outLinkTable.setInput(stats.topOutDegrees);
-					form.reflow(true);
-				}
-			});
+		int current = ++run;
+		var system = Statistics.snapshotOf(getModel());
+		var cache = Cache.getEntityCache();
+		var result = new AtomicReference<Statistics>();
+		App.run("Updating statistics ...",
+			() -> result.set(Statistics.calculate(system, cache,
+				partial -> App.runInUI("Show statistics",
+					() -> show(current, partial)))),
+			() -> show(current, result.get()));
+	}
+
+	private void show(int run, Statistics stats) {
+		if (run != this.run || stats == null || form.isDisposed())
+			return;
+		this.stats = stats;
+		for (Runnable update : updates) {
+			update.run();
+		}
+		inLinkTable.setInput(stats.topInDegrees);
+		outLinkTable.setInput(stats.topOutDegrees);
+		form.reflow(true);
 	}
 
 	private static class LinkDegreeLabel extends LabelProvider
@@ -51,6 +51,7 @@ public class CopyPaste {
 		initialize(Action.CUT, elements);
 		var navigator = Navigator.getInstance();
 		for (var elem : cache) {
+			elem.getParent().getPagedChildren().remove(elem);
 			elem.getParent().getChildren().remove(elem);
 			if (navigator != null) {
 				navigator.getCommonViewer().refresh(elem.getParent());
@@ -1,58 +1,171 @@
 package org.openlca.app.navigation;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerFilter;
 import org.eclipse.swt.widgets.Text;
-import org.eclipse.swt.widgets.TreeItem;
+import org.openlca.app.db.Database;
+import org.openlca.app.navigation.elements.CategoryElement;
 import org.openlca.app.navigation.elements.INavigationElement;
 import org.openlca.app.navigation.elements.ModelElement;
+import org.openlca.app.navigation.elements.ModelTypeElement;
+import org.openlca.app.navigation.elements.MoreElement;
+import org.openlca.app.search.SearchIndex;
+import org.openlca.app.search.SearchIndex.NameMatches;
 import org.openlca.app.util.Labels;
+import org.slf4j.LoggerFactory;
 
 /**
  * A class for filtering model elements from an navigation tree via a text
  * filter. The filter directly registers a listener on the text field.
+ * <p>
+ * The input is debounced and the names are matched in a background thread
+ * against the name index of the active database (see {@link SearchIndex}).
+ * Only the categories that contain matching models are then selected and
+ * expanded, so that categories without hits are never loaded. If there is no
+ * index available, the filter falls back to walking the tree.
  */
 public class ModelTextFilter extends ViewerFilter {
 
+	private static final int DELAY = 300;
+	private static final int MAX_EXPANDED = 50;
+
 	private final Text filterText;
+	private final TreeViewer viewer;
+	private final Runnable update = this::startMatching;
+
+	private volatile String term = "";
+	private volatile NameMatches matches;
 
 	public ModelTextFilter(Text text, TreeViewer viewer) {
 		this.filterText = text;
+		this.viewer = viewer;
 		text.addModifyListener(e -> {
-			viewer.refresh();
-			expand(viewer);
+			var display = text.getDisplay();
+			display.timerExec(-1, update);
+			display.timerExec(DELAY, update);
 		});
 	}
 
-	private void expand(TreeViewer viewer) {
-		TreeItem[] items = viewer.getTree().getItems();
-		while (items != null && items.length > 0) {
-			TreeItem next = items[0];
-			next.setExpanded(true);
-			for (int i = 1; i < items.length; i++)
-				items[i].setExpanded(false);
-			items = next.getItems();
+	private void startMatching() {
+		if (filterText.isDisposed())
+			return;
+		var text = filterText.getText();
+		var next = text == null ? "" : text.trim().toLowerCase();
+		var db = Database.get();
+		if (next.isEmpty() || db == null) {
+			term = next;
+			matches = null;
+			refresh();
+			return;
+		}
+		var display = filterText.getDisplay();
+		new Thread(() -> {
+			NameMatches m = null;
+			try {
+				m = SearchIndex.matchNames(db, next);
+			} catch (Exception e) {
+				LoggerFactory.getLogger(getClass())
+						.warn("failed to match names; walk the tree", e);
+			}
+			var result = m;
+			display.asyncExec(() -> {
+				if (filterText.isDisposed())
+					return;
+				// skip outdated results
+				var current = filterText.getText();
+				if (current == null || !current.trim().toLowerCase().equals(next))
+					return;
+				term = next;
+				matches = result;
+				refresh();
+			});
+		}, "model text filter").start();
+	}
+
+	private void refresh() {
+		if (viewer.getControl().isDisposed())
+			return;
+		viewer.getControl().setRedraw(false);
+		try {
 			viewer.refresh();
+			expand();
+		} finally {
+			viewer.getControl().setRedraw(true);
+		}
+	}
+
+	/**
+	 * Expands the category paths that contain matching models. Without a name
+	 * index, only the first path is expanded.
+	 */
+	private void expand() {
+		if (term.isEmpty())
+			return;
+		var expanded = new ArrayList<Object>();
+		var queue = new ArrayList<Object>();
+		collectVisible(viewer.getInput(), queue);
+		while (!queue.isEmpty() && expanded.size() < MAX_EXPANDED) {
+			var next = queue.remove(0);
+			if (next instanceof ModelElement || next instanceof MoreElement)
+				continue;
+			expanded.add(next);
+			if (matches == null) {
+				// without index: expand the first path only
+				queue.clear();
+			}
+			collectVisible(next, queue);
+		}
+		viewer.setExpandedElements(expanded.toArray());
+	}
+
+	private void collectVisible(Object parent, List<Object> list) {
+		if (parent == null)
+			return;
+		var cp = viewer.getContentProvider();
+		if (!(cp instanceof NavigationContentProvider provider))
+			return;
+		var childs = provider.getChildren(parent);
+		if (childs == null)
+			return;
+		for (var child : childs) {
+			if (select(viewer, parent, child)) {
+				list.add(child);
+			}
 		}
 	}
 
 	@Override
 	public boolean select(Viewer viewer, Object parentElement, Object element) {
-		String text = filterText.getText();
-		if (text == null || text.trim().isEmpty())
+		var text = term;
+		if (text.isEmpty())
 			return true;
-		text = text.trim().toLowerCase();
 		return select((INavigationElement<?>) element, text);
 	}
 
 	private boolean select(INavigationElement<?> element, String text) {
-		if (element instanceof ModelElement) {
-			ModelElement modelElement = (ModelElement) element;
-			String feed = Labels.name(modelElement.getContent())
-					.toLowerCase();
+		var m = matches;
+		if (element instanceof MoreElement)
+			return true;
+		if (element instanceof ModelElement modelElement) {
+			var d = modelElement.getContent();
+			if (m != null && d != null && d.type != null)
+				return m.contains(d.type, d.id);
+			String feed = Labels.name(d).toLowerCase();
 			return feed.contains(text);
 		}
+		if (m != null) {
+			if (element instanceof CategoryElement e) {
+				var category = e.getContent();
+				return category != null
+						&& m.categories().contains(category.id);
+			}
+			if (element instanceof ModelTypeElement e)
+				return m.types().contains(e.getContent());
+		}
 		for (INavigationElement<?> child : element.getChildren()) {
 			if (select(child, text))
 				return true;
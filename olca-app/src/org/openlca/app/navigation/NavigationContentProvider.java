@@ -1,6 +1,7 @@
 package org.openlca.app.navigation;
 
 import java.util.Collection;
+import java.util.List;
 
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.ui.IMemento;
@@ -10,6 +11,22 @@ import org.openlca.app.navigation.elements.INavigationElement;
 
 public class NavigationContentProvider implements ICommonContentProvider {
 
+	private final boolean paged;
+
+	public NavigationContentProvider() {
+		this(false);
+	}
+
+	/**
+	 * Creates a content provider that shows the models of large categories in
+	 * pages when {@code paged} is true (see
+	 * {@link INavigationElement#getPagedChildren()}). This is only done in the
+	 * navigator, where the next page can be loaded from the tree.
+	 */
+	NavigationContentProvider(boolean paged) {
+		this.paged = paged;
+	}
+
 	@Override
 	public void dispose() {
 	}
@@ -21,7 +38,7 @@ public class NavigationContentProvider implements ICommonContentProvider {
 		if (!(parent instanceof INavigationElement))
 			return new Object[0];
 		var e = (INavigationElement<?>) parent;
-		var childs = e.getChildren();
+		var childs = childsOf(e);
 		return childs == null
 				? new Object[0]
 				: childs.toArray();
@@ -45,7 +62,14 @@ public class NavigationContentProvider implements ICommonContentProvider {
 		if (!(element instanceof INavigationElement))
 			return false;
 		var e = (INavigationElement<?>) element;
-		return !e.getChildren().isEmpty();
+		var childs = childsOf(e);
+		return childs != null && !childs.isEmpty();
+	}
+
+	private List<INavigationElement<?>> childsOf(INavigationElement<?> e) {
+		return paged
+				? e.getPagedChildren()
+				: e.getChildren();
 	}
 
 	@Override
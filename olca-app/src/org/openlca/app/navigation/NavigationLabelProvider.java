@@ -5,12 +5,14 @@ import java.io.File;
 import org.eclipse.jface.viewers.ColumnLabelProvider;
 import org.eclipse.jface.viewers.IColorProvider;
 import org.eclipse.jface.viewers.ILabelProviderListener;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.ui.IMemento;
 import org.eclipse.ui.navigator.ICommonContentExtensionSite;
 import org.eclipse.ui.navigator.ICommonLabelProvider;
+import org.openlca.app.M;
 import org.openlca.app.collaboration.navigation.RepositoryLabel;
 import org.openlca.app.db.Cache;
 import org.openlca.app.db.Database;
@@ -24,6 +26,7 @@ import org.openlca.app.navigation.elements.LibraryElement;
 import org.openlca.app.navigation.elements.MappingDirElement;
 import org.openlca.app.navigation.elements.MappingFileElement;
 import org.openlca.app.navigation.elements.ModelElement;
+import org.openlca.app.navigation.elements.MoreElement;
 import org.openlca.app.navigation.elements.ScriptElement;
 import org.openlca.app.rcp.Workspace;
 import org.openlca.app.rcp.images.Icon;
@@ -224,6 +227,8 @@ public class NavigationLabelProvider extends ColumnLabelProvider
 		}
 		if (elem instanceof MappingDirElement)
 			return "Mapping files";
+		if (elem instanceof MoreElement)
+			return NLS.bind(M.MoreModelsToLoad, content);
 
 		if (content instanceof File)
 			return ((File) content).getName();
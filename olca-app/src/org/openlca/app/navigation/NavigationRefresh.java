@@ -0,0 +1,190 @@
+package org.openlca.app.navigation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.ui.navigator.CommonViewer;
+import org.openlca.app.App;
+import org.openlca.app.db.Repository;
+import org.openlca.app.navigation.elements.NavigationDelta;
+import org.openlca.app.navigation.elements.NavigationRoot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Refreshes the navigation tree in the background. The loaded parts of the
+ * tree are copied in the UI thread, queried again in a background thread,
+ * and compared with the copied tree (see {@link NavigationDelta}). Only the inserted, removed, and
+ * relabeled elements are then passed to the viewer in the UI thread.
+ * Refresh requests that arrive while a refresh is running are merged into a
+ * single follow-up refresh, so that a series of saves or an import does not
+ * rebuild the tree again and again. Callbacks that need the refreshed tree
+ * (e.g. to reveal an element) are executed in the UI thread after the refresh
+ * that includes their request was applied.
+ */
+class NavigationRefresh implements Runnable {
+
+	private static final Logger log = LoggerFactory.getLogger(NavigationRefresh.class);
+
+	private static final ExecutorService executor = Executors
+			.newSingleThreadExecutor(r -> {
+				var thread = new Thread(r, "navigation refresh");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	private static NavigationRefresh running;
+	private static boolean pending;
+	private static boolean stale;
+	private static final List<Runnable> pendingCallbacks = new ArrayList<>();
+
+	private final CommonViewer viewer;
+	private final NavigationRoot root;
+	private final List<Runnable> callbacks = new ArrayList<>();
+
+	private NavigationRefresh(CommonViewer viewer, NavigationRoot root) {
+		this.viewer = viewer;
+		this.root = root;
+	}
+
+	static NavigationRefresh of(CommonViewer viewer, NavigationRoot root) {
+		return new NavigationRefresh(viewer, root);
+	}
+
+	/**
+	 * Adds a callback that is executed in the UI thread when this refresh was
+	 * applied. A callback is executed only once, even when this refresh is
+	 * started more than once.
+	 */
+	NavigationRefresh then(Runnable callback) {
+		if (callback != null) {
+			callbacks.add(callback);
+		}
+		return this;
+	}
+
+	/**
+	 * Starts the refresh. This method needs to be called in the UI thread.
+	 */
+	@Override
+	public void run() {
+		if (viewer.getTree().isDisposed()) {
+			runCallbacks(callbacks);
+			return;
+		}
+		synchronized (NavigationRefresh.class) {
+			if (running != null) {
+				pending = true;
+				pendingCallbacks.addAll(callbacks);
+				callbacks.clear();
+				return;
+			}
+			running = this;
+		}
+		var snapshot = NavigationDelta.snapshot(root);
+		executor.execute(() -> {
+			try {
+				long start = System.currentTimeMillis();
+				var changes = NavigationDelta.of(snapshot);
+				log.trace("computed navigation delta in {} ms",
+						System.currentTimeMillis() - start);
+				App.runInUI("Refreshing navigator", () -> apply(changes));
+			} catch (Exception e) {
+				log.error("failed to compute navigation delta", e);
+				App.runInUI("Refreshing navigator", () -> apply(null));
+			}
+		});
+	}
+
+	/**
+	 * Marks a running refresh as outdated, e.g. when a part of the tree was
+	 * refreshed directly in the meantime. The changes of the running refresh
+	 * are then discarded and the refresh is executed again. This needs to be
+	 * called in the UI thread.
+	 */
+	static void invalidate() {
+		synchronized (NavigationRefresh.class) {
+			if (running == null)
+				return;
+			stale = true;
+			pending = true;
+		}
+	}
+
+	private void apply(List<NavigationDelta.Change> changes) {
+		boolean discard;
+		synchronized (NavigationRefresh.class) {
+			discard = stale;
+			stale = false;
+		}
+		try {
+			if (discard || viewer.getTree().isDisposed())
+				return;
+			if (changes == null) {
+				// fall back to a full refresh
+				var expanded = viewer.getExpandedElements();
+				root.update();
+				viewer.refresh();
+				viewer.setExpandedElements(expanded);
+				return;
+			}
+			viewer.getTree().setRedraw(false);
+			try {
+				for (var change : changes) {
+					change.apply();
+					if (change.isEmpty())
+						continue;
+					if (!change.removed().isEmpty()) {
+						viewer.remove(change.removed().toArray());
+					}
+					if (!change.added().isEmpty()) {
+						viewer.add(change.parent(), change.added().toArray());
+					}
+					if (!change.relabeled().isEmpty()) {
+						viewer.update(change.relabeled().toArray(), null);
+					}
+				}
+				// the repository state of the elements can change without
+				// changes in the tree; their labels are updated from the
+				// already loaded elements
+				if (Repository.isConnected()) {
+					viewer.refresh(true);
+				}
+			} finally {
+				viewer.getTree().setRedraw(true);
+			}
+		} finally {
+			boolean again;
+			var next = new NavigationRefresh(viewer, root);
+			synchronized (NavigationRefresh.class) {
+				running = null;
+				again = pending;
+				pending = false;
+				if (discard) {
+					next.callbacks.addAll(callbacks);
+					callbacks.clear();
+				}
+				next.callbacks.addAll(pendingCallbacks);
+				pendingCallbacks.clear();
+			}
+			runCallbacks(callbacks);
+			if (again) {
+				next.run();
+			}
+		}
+	}
+
+	private static void runCallbacks(List<Runnable> callbacks) {
+		var list = new ArrayList<>(callbacks);
+		callbacks.clear();
+		for (var callback : list) {
+			try {
+				callback.run();
+			} catch (Exception e) {
+				log.error("navigation refresh callback failed", e);
+			}
+		}
+	}
+}
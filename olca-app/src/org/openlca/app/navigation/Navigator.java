@@ -41,6 +41,7 @@ import org.openlca.app.navigation.elements.INavigationElement;
 import org.openlca.app.navigation.elements.LibraryElement;
 import org.openlca.app.navigation.elements.MappingFileElement;
 import org.openlca.app.navigation.elements.ModelElement;
+import org.openlca.app.navigation.elements.MoreElement;
 import org.openlca.app.navigation.elements.NavigationRoot;
 import org.openlca.app.navigation.elements.ScriptElement;
 import org.openlca.app.tools.libraries.LibraryInfoPage;
@@ -100,6 +101,9 @@ public class Navigator extends CommonNavigator {
 			} else if (elem instanceof MappingFileElement) {
 				var mapping = ((MappingFileElement) elem).getContent();
 				OpenMappingAction.run(mapping);
+			} else if (elem instanceof MoreElement more) {
+				more.loadNext();
+				refresh(more.getParent());
 			}
 		});
 
@@ -134,21 +138,30 @@ public class Navigator extends CommonNavigator {
 	}
 
 	/**
-	 * Refresh the navigation view if it is available.
+	 * Refresh the navigation view if it is available. The refresh runs in the
+	 * background, so the tree is not updated yet when this method returns.
+	 * Use {@link #refreshThen(Runnable)} to access the refreshed tree.
 	 */
 	public static void refresh() {
+		refreshThen(null);
+	}
+
+	/**
+	 * Refreshes the navigation view and executes the given function in the UI
+	 * thread when the refreshed tree is available, e.g. to select or reveal an
+	 * element. If the navigation view is not available, the function is
+	 * executed directly.
+	 */
+	public static void refreshThen(Runnable fn) {
 		var viewer = getNavigationViewer();
 		var root = getNavigationRoot();
-		if (viewer == null || root == null)
+		if (viewer == null || root == null) {
+			if (fn != null) {
+				fn.run();
+			}
 			return;
-		NavRoot.refresh(() -> {
-			if (viewer.getTree().isDisposed())
-				return;
-			var oldExpansion = viewer.getExpandedElements();
-			root.update();
-			viewer.refresh();
-			setRefreshedExpansion(viewer, oldExpansion);
-		});
+		}
+		NavRoot.refresh(NavigationRefresh.of(viewer, root).then(fn));
 	}
 
 	/**
@@ -159,6 +172,7 @@ public class Navigator extends CommonNavigator {
 		if (viewer == null || element == null)
 			return;
 		NavRoot.refresh(() -> {
+			NavigationRefresh.invalidate();
 			element.update();
 			Object[] oldExpansion = viewer.getExpandedElements();
 			viewer.refresh(element);
@@ -264,11 +278,35 @@ public class Navigator extends CommonNavigator {
 		if (instance == null)
 			return;
 		INavigationElement<?> navElement = findElement(element);
+		if (navElement == null && element instanceof Descriptor d) {
+			navElement = loadPageOf(d);
+		}
 		if (navElement == null)
 			return;
 		instance.selectReveal(new StructuredSelection(navElement));
 	}
 
+	/**
+	 * Loads the page of a paged category that contains the given model into
+	 * the tree and returns the element of that model, if there is such a page.
+	 */
+	private static INavigationElement<?> loadPageOf(Descriptor d) {
+		var root = getNavigationRoot();
+		if (root == null)
+			return null;
+		var queue = new ArrayDeque<INavigationElement<?>>();
+		queue.add(root);
+		while (!queue.isEmpty()) {
+			var next = queue.poll();
+			if (next instanceof MoreElement more && more.loadPageOf(d)) {
+				refresh(more.getParent());
+				return findElement(d);
+			}
+			queue.addAll(next.getPagedChildren());
+		}
+		return null;
+	}
+
 	private static CommonViewer getNavigationViewer() {
 		var instance = getInstance();
 		return instance != null
@@ -309,6 +347,9 @@ public class Navigator extends CommonNavigator {
 
 	/**
 	 * Returns the navigation element with the given content if it exists.
+	 * Only the loaded pages of large categories are searched, so that this
+	 * does not load all models of such categories (see
+	 * {@link INavigationElement#getPagedChildren()}).
 	 */
 	public static INavigationElement<?> findElement(Object content) {
 		var root = getNavigationRoot();
@@ -320,7 +361,7 @@ public class Navigator extends CommonNavigator {
 			var next = queue.poll();
 			if (Objects.equal(next.getContent(), content))
 				return next;
-			queue.addAll(next.getChildren());
+			queue.addAll(next.getPagedChildren());
 		}
 		return null;
 	}
@@ -0,0 +1,12 @@
+package org.openlca.app.navigation;
+
+/**
+ * The content provider of the navigator. It shows the models of large
+ * categories in pages that can be loaded from the tree.
+ */
+public class NavigatorContentProvider extends NavigationContentProvider {
+
+	public NavigatorContentProvider() {
+		super(true);
+	}
+}
@@ -70,6 +70,10 @@ public class DbActivateAction extends Action implements INavigationAction {
 	@Override
 	public void run() {
 		log.trace("Run database activation");
+		// activating a database closes the currently active database
+		if (!DbCopyAction.checkNotCopying(
+				config, Database.getActiveConfiguration()))
+			return;
 		if (Database.get() != null) {
 			if (!Editors.closeAll())
 				return;
@@ -147,26 +151,31 @@ public class DbActivateAction extends Action implements INavigationAction {
 		private void refresh() {
 			log.trace("Refresh navigation");
 			NavRoot.init();
-			Navigator.refresh();
+			Navigator.refreshThen(this::revealDatabase);
 			if (Database.get() == null)
 				return;
-			var navElem = Navigator.findElement(config);
-			if (navElem != null && !navElem.getChildren().isEmpty()) {
-				var first = navElem.getChildren().get(0);
-				var navigator = Navigator.getInstance();
-				if (navigator != null) {
-					var viewer = navigator.getCommonViewer();
-					if (viewer != null) {
-						viewer.reveal(first);
-					}
-				}
-			}
 			log.trace("Refresh history view (if open)");
 			Announcements.check();
 			HistoryView.refresh();
 			CompareView.clear();
 		}
 
+		private void revealDatabase() {
+			if (Database.get() == null)
+				return;
+			var navElem = Navigator.findElement(config);
+			if (navElem == null || navElem.getChildren().isEmpty())
+				return;
+			var first = navElem.getChildren().get(0);
+			var navigator = Navigator.getInstance();
+			if (navigator != null) {
+				var viewer = navigator.getCommonViewer();
+				if (viewer != null) {
+					viewer.reveal(first);
+				}
+			}
+		}
+
 		private void error(String message) {
 			MsgBox.error(M.CouldNotOpenDatabase, message);
 			closeDatabase();
@@ -39,6 +39,8 @@ public class DbCloseAction extends Action implements INavigationAction {
 
 	@Override
 	public void run() {
+		if (!DbCopyAction.checkNotCopying(Database.getActiveConfiguration()))
+			return;
 		if (!Editors.closeAll())
 			return;
 		App.run(M.CloseDatabase, () -> {
@@ -68,6 +68,8 @@ public class DbCompressAction extends Action implements INavigationAction {
 				return;
 			config = (DerbyConfig) conf;
 		}
+		if (!DbCopyAction.checkNotCopying(config))
+			return;
 		new DbCompressionDialog().open();
 	}
 
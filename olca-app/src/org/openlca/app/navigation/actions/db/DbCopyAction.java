@@ -1,18 +1,21 @@
 package org.openlca.app.navigation.actions.db;
 
-import java.io.File;
 import java.util.List;
 
-import org.apache.commons.io.FileUtils;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.dialogs.InputDialog;
 import org.eclipse.jface.window.Window;
+import org.eclipse.osgi.util.NLS;
 import org.openlca.app.App;
 import org.openlca.app.M;
-import org.openlca.app.collaboration.views.CompareView;
 import org.openlca.app.collaboration.views.HistoryView;
 import org.openlca.app.db.Database;
-import org.openlca.app.db.DatabaseDir;
+import org.openlca.app.db.DatabaseCopy;
 import org.openlca.app.editors.Editors;
 import org.openlca.app.navigation.Navigator;
 import org.openlca.app.navigation.actions.INavigationAction;
@@ -70,30 +73,89 @@ public class DbCopyAction extends Action implements INavigationAction {
 			MsgBox.error(M.NewDatabase_InvalidName);
 			return;
 		}
-		App.runInUI("Copy database", () -> doCopy(newName));
+		// the copy contains only the saved state of the active database
+		if (Database.isActive(config)) {
+			var page = Editors.getActivePage();
+			if (page != null && !page.saveAllEditors(true))
+				return;
+		}
+		new CopyJob(config, newName).schedule();
+	}
+
+	/**
+	 * Returns {@code true} if the given database is copied by a copy job that
+	 * is scheduled or running.
+	 */
+	public static boolean isCopying(DatabaseConfig config) {
+		if (config == null)
+			return false;
+		for (var job : Job.getJobManager().find(CopyJob.FAMILY)) {
+			if (job instanceof CopyJob copy
+					&& copy.config.name().equals(config.name()))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns {@code true} if none of the given databases is copied at the
+	 * moment. Otherwise, a message is shown and {@code false} is returned.
+	 * Actions that close, modify, delete, or export a database need to check
+	 * this before they touch the database files.
+	 */
+	public static boolean checkNotCopying(DatabaseConfig... configs) {
+		for (var config : configs) {
+			if (isCopying(config)) {
+				MsgBox.info(NLS.bind(M.DatabaseIsCopied, config.name()));
+				return false;
+			}
+		}
+		return true;
 	}
 
-	private void doCopy(String newName) {
-		boolean isActive = Database.isActive(config);
-		try {
-			if (isActive) {
-				if (!Editors.closeAll())
-					return;
-				Database.close();
+	/**
+	 * Copies the database in the background. The active database stays open
+	 * while it is copied. The source database must not be closed, modified,
+	 * deleted, or exported while the job is scheduled or running; see
+	 * {@link DbCopyAction#checkNotCopying(DatabaseConfig...)}.
+	 */
+	private static class CopyJob extends Job {
+
+		private static final Object FAMILY = CopyJob.class;
+
+		private final DerbyConfig config;
+		private final String newName;
+
+		CopyJob(DerbyConfig config, String newName) {
+			super("Copy database " + config.name());
+			this.config = config;
+			this.newName = newName;
+			setUser(true);
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == FAMILY;
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				DatabaseCopy.run(config, newName, monitor);
+			} catch (OperationCanceledException e) {
+				return Status.CANCEL_STATUS;
+			} catch (Exception e) {
+				ErrorReporter.on("failed to copy database", e);
+				return Status.CANCEL_STATUS;
 			}
-			File fromFolder = DatabaseDir.getRootFolder(config.name());
-			File toFolder = DatabaseDir.getRootFolder(newName);
-			FileUtils.copyDirectory(fromFolder, toFolder);
-			DerbyConfig newConf = new DerbyConfig();
-			newConf.name(newName);
-			Database.register(newConf);
-			if (isActive)
-				Database.activate(config);
-			Navigator.refresh();
-			HistoryView.refresh();
-			CompareView.clear();
-		} catch (Exception e) {
-			ErrorReporter.on("failed to copy database", e);
+			App.runInUI("Register database copy", () -> {
+				DerbyConfig newConf = new DerbyConfig();
+				newConf.name(newName);
+				Database.register(newConf);
+				Navigator.refresh();
+				HistoryView.refresh();
+			});
+			return Status.OK_STATUS;
 		}
 	}
 
@@ -66,6 +66,9 @@ public class DbDeleteAction extends Action implements INavigationAction {
 	public void run() {
 		if (configs.isEmpty())
 			return;
+		if (!DbCopyAction.checkNotCopying(
+				configs.toArray(DatabaseConfig[]::new)))
+			return;
 		if (createMessageDialog().open() != MessageDialog.OK)
 			return;
 		if (!checkCloseEditors())
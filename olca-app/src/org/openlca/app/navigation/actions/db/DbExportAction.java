@@ -1,13 +1,6 @@
 package org.openlca.app.navigation.actions.db;
 
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.jface.action.Action;
@@ -17,9 +10,9 @@ import org.openlca.app.collaboration.views.CompareView;
 import org.openlca.app.collaboration.views.HistoryView;
 import org.openlca.app.components.FileChooser;
 import org.openlca.app.db.Database;
+import org.openlca.app.db.DatabaseBackup;
 import org.openlca.app.db.DatabaseDir;
 import org.openlca.app.db.MySQLDatabaseExport;
-import org.openlca.app.db.Repository;
 import org.openlca.app.editors.Editors;
 import org.openlca.app.navigation.Navigator;
 import org.openlca.app.navigation.actions.INavigationAction;
@@ -29,14 +22,12 @@ import org.openlca.app.rcp.images.Icon;
 import org.openlca.app.util.ErrorReporter;
 import org.openlca.app.util.MsgBox;
 import org.openlca.app.util.Popup;
+import org.openlca.core.database.Derby;
 import org.openlca.core.database.config.DatabaseConfig;
 import org.openlca.core.database.config.DerbyConfig;
 import org.openlca.core.database.config.MySqlConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.zeroturnaround.zip.FileSource;
-import org.zeroturnaround.zip.ZipEntrySource;
-import org.zeroturnaround.zip.ZipUtil;
 
 public class DbExportAction extends Action implements INavigationAction {
 
@@ -69,6 +60,8 @@ public class DbExportAction extends Action implements INavigationAction {
 	}
 
 	public boolean run(DatabaseConfig config) {
+		if (!DbCopyAction.checkNotCopying(config))
+			return false;
 		var file = FileChooser.forSavingFile(M.Export, config.name() + ".zolca");
 		if (file == null)
 			return false;
@@ -84,13 +77,22 @@ public class DbExportAction extends Action implements INavigationAction {
 				return false;
 			}
 		}
-		if (active)
-			if (!Editors.closeAll())
+		// an active Derby database is backed up while it stays open; only
+		// the unsaved changes of the editors need to be saved before
+		boolean online = active
+				&& config instanceof DerbyConfig
+				&& Database.get() instanceof Derby;
+		if (online) {
+			var page = Editors.getActivePage();
+			if (page != null && !page.saveAllEditors(true))
 				return false;
+		} else if (active && !Editors.closeAll()) {
+			return false;
+		}
 		log.trace("run database export to file {}", zip);
-		var runner = new ExportRunner(config, zip, active);
+		var runner = new ExportRunner(config, zip, active, online);
 		App.runWithProgress(M.ExportDatabase, runner);
-		updateUI(zip, active);
+		updateUI(zip, active && !online);
 		return !runner.failed;
 	}
 
@@ -99,26 +101,33 @@ public class DbExportAction extends Action implements INavigationAction {
 		private final DatabaseConfig config;
 		private final File zip;
 		private final boolean active;
+		private final boolean online;
 		private boolean failed;
 
-		private ExportRunner(DatabaseConfig config, File zip, boolean active) {
+		private ExportRunner(
+				DatabaseConfig config, File zip, boolean active, boolean online) {
 			this.config = config;
 			this.zip = zip;
 			this.active = active;
+			this.online = online;
 		}
 
 		@Override
 		public void run() {
 			try {
+				if (online) {
+					DatabaseBackup.online((Derby) Database.get(), zip);
+					return;
+				}
 				if (active)
 					Database.close();
 				if (config instanceof DerbyConfig) {
 					File folder = DatabaseDir.getRootFolder(config.name());
-					ZipEntrySource[] toPack = collectFileSources(folder);
-					ZipUtil.pack(toPack, zip);
+					DatabaseBackup.pack(folder, zip);
 				} else if (config instanceof MySqlConfig) {
 					MySQLDatabaseExport export = new MySQLDatabaseExport((MySqlConfig) config, zip);
 					export.run();
+					failed = !export.doneWithSuccess();
 				}
 			} catch (Exception e) {
 				failed = true;
@@ -128,28 +137,8 @@ public class DbExportAction extends Action implements INavigationAction {
 
 	}
 
-
-	private ZipEntrySource[] collectFileSources(File folder) throws IOException {
-		List<ZipEntrySource> fileSources = new ArrayList<>();
-		Files.walkFileTree(folder.toPath(), new SimpleFileVisitor<>() {
-			@Override
-			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-				String relativePath = folder.toPath().relativize(file).toString();
-				if (exclude(relativePath))
-					return FileVisitResult.CONTINUE;
-				fileSources.add(new FileSource(relativePath.replace("\\", "/"), file.toFile()));
-				return FileVisitResult.CONTINUE;
-			}
-		});
-		return fileSources.toArray(new ZipEntrySource[0]);
-	}
-
-	private boolean exclude(String relativePath) {
-		return relativePath.startsWith(DatabaseDir.FILE_STORAGE + File.separator + Repository.GIT_DIR);
-	}
-
-	private void updateUI(File zip, boolean active) {
-		if (active) {
+	private void updateUI(File zip, boolean closed) {
+		if (closed) {
 			Navigator.refresh();
 			CompareView.clear();
 		}
@@ -56,6 +56,8 @@ public class DbRenameAction extends Action implements INavigationAction {
 				return;
 			config = conf;
 		}
+		if (!DbCopyAction.checkNotCopying(config))
+			return;
 		var dialog = new InputDialog(UI.shell(),
 				M.Rename,
 				M.PleaseEnterANewName,
@@ -100,7 +102,7 @@ public class DbRenameAction extends Action implements INavigationAction {
 			if (isActive) {
 				Database.activate(config);
 			}
-			Navigator.refresh();
+			Navigator.refreshThen(() -> Navigator.select(config));
 			HistoryView.refresh();
 			CompareView.clear();
 		} catch (Exception e) {
@@ -3,11 +3,9 @@ package org.openlca.app.navigation.elements;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 import org.openlca.app.db.Database;
 import org.openlca.core.database.CategoryDao;
-import org.openlca.core.database.Daos;
 import org.openlca.core.model.Category;
 
 /**
@@ -15,8 +13,33 @@ import org.openlca.core.model.Category;
  */
 public class CategoryElement extends NavigationElement<Category> {
 
+	private final ModelPager pager;
+
 	public CategoryElement(INavigationElement<?> parent, Category category) {
 		super(parent, category);
+		pager = new ModelPager(this, category != null
+				? category.modelType
+				: null);
+	}
+
+	/**
+	 * Loads the next page of models when this category contains more models
+	 * than fit on the pages that are currently loaded.
+	 */
+	void nextPage() {
+		pager.nextPage();
+		update();
+	}
+
+	/**
+	 * Loads the pages up to the page that contains the model with the given
+	 * ID. Returns {@code true} if more pages were loaded.
+	 */
+	boolean loadPageOf(long id) {
+		if (!pager.loadPageOf(id))
+			return false;
+		update();
+		return true;
 	}
 
 	@Override
@@ -29,7 +52,22 @@ public class CategoryElement extends NavigationElement<Category> {
 
 	@Override
 	protected List<INavigationElement<?>> queryChilds() {
-		var category = getContent();
+		return query(getContent(), true);
+	}
+
+	@Override
+	protected List<INavigationElement<?>> queryAllChilds() {
+		return query(getContent(), false);
+	}
+
+	@Override
+	List<INavigationElement<?>> queryChildsWith(INavigationElement<?> next) {
+		return next != null && next.getContent() instanceof Category c
+				? query(c, true)
+				: queryChilds();
+	}
+
+	private List<INavigationElement<?>> query(Category category, boolean paged) {
 		if (category == null)
 			return Collections.emptyList();
 
@@ -52,13 +90,10 @@ public class CategoryElement extends NavigationElement<Category> {
 		}
 
 		// models in this category
-		var dao = Daos.root(Database.get(), category.modelType);
-		if (dao == null)
-			return list;
-		for (var d : dao.getDescriptors(Optional.of(category))) {
-			if (lib == null || lib.equals(d.library)) {
-				list.add(new ModelElement(this, d));
-			}
+		if (paged) {
+			pager.addModels(category, list);
+		} else {
+			pager.addAllModels(category, list);
 		}
 		return list;
 	}
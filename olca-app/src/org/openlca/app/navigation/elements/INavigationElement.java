@@ -10,8 +10,22 @@ public interface INavigationElement<T> {
 
 	INavigationElement<?> getParent();
 
+	/**
+	 * Returns all child elements of this element.
+	 */
 	List<INavigationElement<?>> getChildren();
 
+	/**
+	 * Returns the child elements as they are shown in the navigator. For
+	 * categories with many models, these are only the models of the loaded
+	 * pages followed by a {@link MoreElement}. Code that processes the content
+	 * of an element (e.g. delete, copy, or export it) must use
+	 * {@link #getChildren()} instead.
+	 */
+	default List<INavigationElement<?>> getPagedChildren() {
+		return getChildren();
+	}
+
 	T getContent();
 
 	void update();
@@ -0,0 +1,178 @@
+package org.openlca.app.navigation.elements;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openlca.app.db.Database;
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.model.Category;
+import org.openlca.core.model.ModelType;
+import org.openlca.util.Strings;
+import org.slf4j.LoggerFactory;
+
+import jakarta.persistence.Table;
+
+/**
+ * Loads the model elements of a category, or the models without category of
+ * a model type, in pages. Small categories are loaded completely as before.
+ * For large categories, the number of models is first counted, and only the
+ * first pages of models are loaded. The IDs and names of the models are
+ * sorted in Java with the same string comparison as in the navigator (see
+ * {@code NavigationComparator}), so that the loaded pages are exactly the
+ * first models that are shown in the tree and do not depend on the collation
+ * of the database. A {@link MoreElement} is then added to the child
+ * elements, from which the next page can be loaded. The pages are only used for the child elements that are shown in
+ * the navigator (see {@link INavigationElement#getPagedChildren()}).
+ */
+class ModelPager {
+
+	static final int PAGE_SIZE = 1000;
+
+	private final NavigationElement<?> owner;
+	private final ModelType type;
+	private int pages = 1;
+
+	/** The sorted model IDs of the last paged query. */
+	private volatile List<Long> order = Collections.emptyList();
+
+	ModelPager(NavigationElement<?> owner, ModelType type) {
+		this.owner = owner;
+		this.type = type;
+	}
+
+	void nextPage() {
+		pages++;
+	}
+
+	/**
+	 * Increases the number of loaded pages so that the model with the given
+	 * ID is contained in them. Returns {@code true} if this was necessary,
+	 * and {@code false} if the model is already loaded or is not a model of
+	 * the last paged query.
+	 */
+	boolean loadPageOf(long id) {
+		int idx = order.indexOf(id);
+		if (idx < 0)
+			return false;
+		int page = idx / PAGE_SIZE + 1;
+		if (page <= pages)
+			return false;
+		pages = page;
+		return true;
+	}
+
+	/**
+	 * Adds the model elements of the given category (models without category
+	 * if it is {@code null}) of the currently loaded pages to the given list.
+	 */
+	void addModels(Category category, List<INavigationElement<?>> list) {
+		var db = Database.get();
+		if (db == null || type == null)
+			return;
+		var dao = Daos.root(db, type);
+		if (dao == null)
+			return;
+		var lib = owner.getLibrary().orElse(null);
+
+		int limit = pages * PAGE_SIZE;
+		var table = tableOf(type);
+		int count = lib == null && table != null
+				? count(db, table, category)
+				: -1;
+		if (count < 0 || count <= limit) {
+			order = Collections.emptyList();
+			addAllModels(category, list);
+			return;
+		}
+
+		var entries = new ArrayList<Entry>(count);
+		var sql = "select id, name from " + table
+				+ " where " + filterOf(category);
+		NativeSql.on(db).query(sql, r -> {
+			entries.add(new Entry(r.getLong(1), r.getString(2)));
+			return true;
+		});
+		entries.sort((e1, e2) -> {
+			int c = Strings.compare(e1.name(), e2.name());
+			return c != 0 ? c : Long.compare(e1.id(), e2.id());
+		});
+		order = entries.stream()
+				.map(Entry::id)
+				.toList();
+
+		var ids = new HashSet<Long>();
+		for (int i = 0; i < limit && i < entries.size(); i++) {
+			ids.add(entries.get(i).id());
+		}
+		for (var d : dao.getDescriptors(ids)) {
+			list.add(new ModelElement(owner, d));
+		}
+		list.add(new MoreElement(owner, count - ids.size()));
+	}
+
+	/**
+	 * Adds all model elements of the given category (models without category
+	 * if it is {@code null}) to the given list, without paging.
+	 */
+	void addAllModels(Category category, List<INavigationElement<?>> list) {
+		var db = Database.get();
+		if (db == null || type == null)
+			return;
+		var dao = Daos.root(db, type);
+		if (dao == null)
+			return;
+		var lib = owner.getLibrary().orElse(null);
+		for (var d : dao.getDescriptors(Optional.ofNullable(category))) {
+			if (lib == null || Objects.equals(lib, d.library)) {
+				list.add(new ModelElement(owner, d));
+			}
+		}
+	}
+
+	private int count(IDatabase db, String table, Category category) {
+		try {
+			var count = new AtomicInteger();
+			var sql = "select count(*) from " + table
+					+ " where " + filterOf(category);
+			NativeSql.on(db).query(sql, r -> {
+				count.set(r.getInt(1));
+				return false;
+			});
+			return count.get();
+		} catch (Exception e) {
+			LoggerFactory.getLogger(getClass())
+					.warn("failed to count models in " + table, e);
+			return -1;
+		}
+	}
+
+	private static String filterOf(Category category) {
+		return category == null
+				? "f_category is null"
+				: "f_category = " + category.id;
+	}
+
+	/**
+	 * Returns the name of the table of the given model type if paging is
+	 * supported for that type, otherwise {@code null}. Parameters are not
+	 * paged because the navigation contains only the global parameters.
+	 */
+	private static String tableOf(ModelType type) {
+		if (type == ModelType.PARAMETER || type == ModelType.CATEGORY)
+			return null;
+		var clazz = type.getModelClass();
+		if (clazz == null || !clazz.isAnnotationPresent(Table.class))
+			return null;
+		return clazz.getAnnotation(Table.class).name();
+	}
+
+	private record Entry(long id, String name) {
+	}
+}
@@ -2,22 +2,52 @@ package org.openlca.app.navigation.elements;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
 
 import org.openlca.app.db.Database;
 import org.openlca.core.database.CategoryDao;
-import org.openlca.core.database.Daos;
 import org.openlca.core.model.ModelType;
 
 public class ModelTypeElement extends NavigationElement<ModelType> {
 
+	private final ModelPager pager;
+
 	public ModelTypeElement(INavigationElement<?> parent, ModelType type) {
 		super(parent, type);
+		pager = new ModelPager(this, type);
+	}
+
+	/**
+	 * Loads the next page of models without category when there are more
+	 * such models than fit on the pages that are currently loaded.
+	 */
+	void nextPage() {
+		pager.nextPage();
+		update();
+	}
+
+	/**
+	 * Loads the pages up to the page that contains the model without
+	 * category with the given ID. Returns {@code true} if more pages were
+	 * loaded.
+	 */
+	boolean loadPageOf(long id) {
+		if (!pager.loadPageOf(id))
+			return false;
+		update();
+		return true;
 	}
 
 	@Override
 	protected List<INavigationElement<?>> queryChilds() {
+		return query(true);
+	}
+
+	@Override
+	protected List<INavigationElement<?>> queryAllChilds() {
+		return query(false);
+	}
+
+	private List<INavigationElement<?>> query(boolean paged) {
 		var type = getContent();
 		var db = Database.get();
 
@@ -42,13 +72,10 @@ public class ModelTypeElement extends NavigationElement<ModelType> {
 		}
 
 		// models without category
-		var dao = Daos.root(Database.get(), type);
-		if (dao == null)
-			return list;
-		for (var d : dao.getDescriptors(Optional.empty())) {
-			if (lib == null || Objects.equals(lib, d.library)) {
-				list.add(new ModelElement(this, d));
-			}
+		if (paged) {
+			pager.addModels(null, list);
+		} else {
+			pager.addAllModels(null, list);
 		}
 		return list;
 	}
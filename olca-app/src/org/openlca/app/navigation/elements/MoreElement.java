@@ -0,0 +1,52 @@
+package org.openlca.app.navigation.elements;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.openlca.core.model.descriptors.Descriptor;
+
+/**
+ * A placeholder element at the end of a paged list of model elements. It
+ * contains the number of models that are not loaded yet. See
+ * {@link ModelPager}.
+ */
+public class MoreElement extends NavigationElement<Integer> {
+
+	MoreElement(INavigationElement<?> parent, int remaining) {
+		super(parent, remaining);
+	}
+
+	/**
+	 * Loads the next page of models into the parent element. The parent
+	 * element needs to be refreshed in the navigation tree then.
+	 */
+	public void loadNext() {
+		var parent = getParent();
+		if (parent instanceof CategoryElement e) {
+			e.nextPage();
+		} else if (parent instanceof ModelTypeElement e) {
+			e.nextPage();
+		}
+	}
+
+	/**
+	 * Loads the pages of the parent element up to the page that contains the
+	 * given model. Returns {@code true} if more pages were loaded; the parent
+	 * element needs to be refreshed in the navigation tree then.
+	 */
+	public boolean loadPageOf(Descriptor d) {
+		if (d == null)
+			return false;
+		var parent = getParent();
+		if (parent instanceof CategoryElement e)
+			return e.loadPageOf(d.id);
+		if (parent instanceof ModelTypeElement e)
+			return e.loadPageOf(d.id);
+		return false;
+	}
+
+	@Override
+	protected List<INavigationElement<?>> queryChilds() {
+		return Collections.emptyList();
+	}
+}
@@ -0,0 +1,197 @@
+package org.openlca.app.navigation.elements;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.openlca.core.model.Category;
+import org.openlca.core.model.descriptors.Descriptor;
+
+/**
+ * Computes the changes of the already loaded parts of a navigation tree. The
+ * child elements of every loaded element are queried again and compared with
+ * the current child elements. Elements that are still present are kept (so
+ * that the tree viewer can keep its items and their expansion state), and
+ * only the inserted, removed, and relabeled elements are collected.
+ * <p>
+ * The loaded child elements are first copied into a {@link Snapshot} in the
+ * UI thread. The computation then only reads this snapshot, does not modify
+ * the elements of the tree, and can run in a background thread. The changes,
+ * including the new contents of the kept elements, are then applied in the UI
+ * thread via {@link Change#apply()}.
+ */
+public final class NavigationDelta {
+
+	private final Snapshot snapshot;
+	private final List<Change> changes = new ArrayList<>();
+
+	private NavigationDelta(Snapshot snapshot) {
+		this.snapshot = snapshot;
+	}
+
+	/**
+	 * Copies the loaded child elements of the given tree. This needs to be
+	 * called in the UI thread.
+	 */
+	public static Snapshot snapshot(NavigationRoot root) {
+		var loaded = new IdentityHashMap<INavigationElement<?>, List<INavigationElement<?>>>();
+		if (root == null)
+			return new Snapshot(null, loaded);
+		var childs = root.loadedChilds();
+		if (childs != null) {
+			loaded.put(root, List.copyOf(childs));
+			for (var child : childs) {
+				collect(child, loaded);
+			}
+		}
+		return new Snapshot(root, loaded);
+	}
+
+	private static void collect(INavigationElement<?> elem,
+			Map<INavigationElement<?>, List<INavigationElement<?>>> loaded) {
+		if (!(elem instanceof NavigationElement<?> e))
+			return;
+		var childs = e.loadedChilds();
+		if (childs == null)
+			return;
+		loaded.put(e, List.copyOf(childs));
+		for (var child : childs) {
+			collect(child, loaded);
+		}
+	}
+
+	/**
+	 * Computes the changes of the tree from the given snapshot. This can be
+	 * called in a background thread.
+	 */
+	public static List<Change> of(Snapshot snapshot) {
+		var delta = new NavigationDelta(snapshot);
+		var root = snapshot.root();
+		if (root == null)
+			return delta.changes;
+		var loaded = snapshot.loaded().get(root);
+		if (loaded == null)
+			return delta.changes;
+		delta.compare(root, loaded, root.queryChilds());
+		return delta.changes;
+	}
+
+	private void compare(INavigationElement<?> parent,
+			List<INavigationElement<?>> oldChilds,
+			List<INavigationElement<?>> newChilds) {
+
+		var olds = new HashMap<INavigationElement<?>, INavigationElement<?>>();
+		for (var old : oldChilds) {
+			olds.put(old, old);
+		}
+
+		var childs = new ArrayList<INavigationElement<?>>(newChilds.size());
+		var added = new ArrayList<INavigationElement<?>>();
+		var relabeled = new ArrayList<INavigationElement<?>>();
+		var kept = new ArrayList<NavigationElement<?>>();
+		var nexts = new ArrayList<INavigationElement<?>>();
+		for (var next : newChilds) {
+			var old = olds.remove(next);
+			if (old == null) {
+				childs.add(next);
+				added.add(next);
+				continue;
+			}
+			childs.add(old);
+			if (!sameLabel(old.getContent(), next.getContent())) {
+				relabeled.add(old);
+			}
+			if (old instanceof NavigationElement<?> elem) {
+				kept.add(elem);
+				nexts.add(next);
+			}
+		}
+		var removed = new ArrayList<>(olds.keySet());
+
+		var updates = new ArrayList<Runnable>(kept.size());
+		for (int i = 0; i < kept.size(); i++) {
+			var elem = kept.get(i);
+			var next = nexts.get(i);
+			updates.add(() -> elem.takeContentOf(next));
+		}
+		changes.add(new Change(
+				parent, childs, added, removed, relabeled, updates));
+
+		// compare the loaded children of the kept elements; they are queried
+		// with the new contents of these elements
+		for (int i = 0; i < kept.size(); i++) {
+			var elem = kept.get(i);
+			var loaded = snapshot.loaded().get(elem);
+			if (loaded == null)
+				continue;
+			compare(elem, loaded, elem.queryChildsWith(nexts.get(i)));
+		}
+	}
+
+	private static boolean sameLabel(Object oldContent, Object newContent) {
+		if (oldContent instanceof Descriptor d1
+				&& newContent instanceof Descriptor d2) {
+			return Objects.equals(d1.name, d2.name)
+					&& d1.version == d2.version
+					&& d1.lastChange == d2.lastChange;
+		}
+		if (oldContent instanceof Category c1
+				&& newContent instanceof Category c2) {
+			return Objects.equals(c1.name, c2.name);
+		}
+		return Objects.equals(oldContent, newContent);
+	}
+
+	/**
+	 * The loaded child elements of a navigation tree at a point in time.
+	 *
+	 * @param root   the root of the tree
+	 * @param loaded the copied child lists of the loaded elements
+	 */
+	public record Snapshot(
+			NavigationRoot root,
+			Map<INavigationElement<?>, List<INavigationElement<?>>> loaded) {
+	}
+
+	/**
+	 * The changes of the child elements of a parent element.
+	 *
+	 * @param parent    the parent element
+	 * @param childs    the new list of child elements of the parent
+	 * @param added     the elements that were inserted
+	 * @param removed   the elements that were removed
+	 * @param relabeled the kept elements which labels have changed
+	 * @param updates   set the new contents of the kept elements
+	 */
+	public record Change(
+			INavigationElement<?> parent,
+			List<INavigationElement<?>> childs,
+			List<INavigationElement<?>> added,
+			List<INavigationElement<?>> removed,
+			List<INavigationElement<?>> relabeled,
+			List<Runnable> updates) {
+
+		public boolean isEmpty() {
+			return added.isEmpty() && removed.isEmpty() && relabeled.isEmpty();
+		}
+
+		/**
+		 * Sets the new child elements in the parent element and the new
+		 * contents of the kept elements. This needs to be called in the UI
+		 * thread before the viewer is updated.
+		 */
+		public void apply() {
+			for (var update : updates) {
+				update.run();
+			}
+			if (parent instanceof NavigationRoot root) {
+				root.setChilds(childs);
+			} else if (parent instanceof NavigationElement<?> elem) {
+				elem.setChilds(childs);
+			}
+		}
+	}
+}
@@ -11,6 +11,7 @@ import java.util.Optional;
 abstract class NavigationElement<T> implements INavigationElement<T> {
 
 	private List<INavigationElement<?>> cache;
+	private List<INavigationElement<?>> allCache;
 	private T content;
 	private final INavigationElement<?> parent;
 	private String library;
@@ -28,10 +29,23 @@ abstract class NavigationElement<T> implements INavigationElement<T> {
 	@Override
 	public void update() {
 		cache = null;
+		allCache = null;
 	}
 
 	@Override
 	public List<INavigationElement<?>> getChildren() {
+		var childs = getPagedChildren();
+		if (childs.isEmpty()
+				|| !(childs.get(childs.size() - 1) instanceof MoreElement))
+			return childs;
+		if (allCache == null) {
+			allCache = queryAllChilds();
+		}
+		return allCache;
+	}
+
+	@Override
+	public List<INavigationElement<?>> getPagedChildren() {
 		if (cache == null) {
 			cache = queryChilds();
 		}
@@ -53,10 +67,56 @@ abstract class NavigationElement<T> implements INavigationElement<T> {
 	}
 
 	/**
-	 * Queries the child elements
+	 * Queries the child elements as they are shown in the navigation tree. For
+	 * large categories, this can be a page of the models followed by a
+	 * {@link MoreElement}.
 	 */
 	protected abstract List<INavigationElement<?>> queryChilds();
 
+	/**
+	 * Queries all child elements without paging. This is only called when
+	 * {@link #queryChilds()} returned a paged list.
+	 */
+	protected List<INavigationElement<?>> queryAllChilds() {
+		return queryChilds();
+	}
+
+	/**
+	 * Returns the child elements if they are already loaded, otherwise
+	 * {@code null}.
+	 */
+	List<INavigationElement<?>> loadedChilds() {
+		return cache;
+	}
+
+	void setChilds(List<INavigationElement<?>> childs) {
+		this.cache = childs;
+		this.allCache = null;
+	}
+
+	/**
+	 * Queries the child elements as they would be shown when the content of
+	 * this element would be replaced by the content of the given element,
+	 * which is a newer version of this element. The children are created
+	 * with this element as parent. This does not modify this element and is
+	 * used to compute a {@link NavigationDelta} in a background thread.
+	 */
+	List<INavigationElement<?>> queryChildsWith(INavigationElement<?> next) {
+		return queryChilds();
+	}
+
+	/**
+	 * Replaces the content of this element with the content of the given
+	 * element if it has the same type. This needs to be called in the UI
+	 * thread as the content is used in the tree viewer.
+	 */
+	@SuppressWarnings("unchecked")
+	void takeContentOf(INavigationElement<?> other) {
+		if (other != null && other.getClass() == getClass()) {
+			content = (T) other.getContent();
+		}
+	}
+
 	@Override
 	public Optional<String> getLibrary() {
 		return Optional.ofNullable(library);
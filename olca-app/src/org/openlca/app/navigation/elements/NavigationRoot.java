@@ -35,10 +35,22 @@ public class NavigationRoot extends PlatformObject implements
 
 	@Override
 	public List<INavigationElement<?>> getChildren() {
-		if (childs != null)
-			return childs;
+		if (childs == null) {
+			childs = queryChilds();
+		}
+		return childs;
+	}
+
+	List<INavigationElement<?>> loadedChilds() {
+		return childs;
+	}
+
+	void setChilds(List<INavigationElement<?>> childs) {
+		this.childs = childs;
+	}
 
-		childs = new ArrayList<>();
+	List<INavigationElement<?>> queryChilds() {
+		var childs = new ArrayList<INavigationElement<?>>();
 
 		// add database elements
 		var dbs = Database.getConfigurations();
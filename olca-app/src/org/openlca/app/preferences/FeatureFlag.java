@@ -8,7 +8,13 @@ public enum FeatureFlag {
 
 	TAG_RESULTS("Enable contributions by tags in result views"),
 
-	MATRIX_IMAGE_EXPORT("Enable matrix image export");
+	MATRIX_IMAGE_EXPORT("Enable matrix image export"),
+
+	PRELOAD_MATRIX_CACHE("Preload the matrix cache when a database is activated"),
+
+	PARALLEL_SIMULATION("Run the iterations of Monte Carlo simulations in parallel"),
+
+	PARALLEL_JSON_EXPORT("Export JSON-LD data sets with multiple threads");
 
 	private final String description;
 
@@ -0,0 +1,312 @@
+package org.openlca.app.results;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import org.openlca.core.matrix.index.EnviFlow;
+import org.openlca.core.matrix.index.TechFlow;
+import org.openlca.core.model.descriptors.ImpactDescriptor;
+import org.openlca.core.results.Contribution;
+import org.openlca.core.results.LcaResult;
+import org.openlca.core.results.ResultItemOrder;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An index of the process contributions of a result. For a process (or more
+ * precisely a technosphere flow), a column of the index contains the direct
+ * and upstream results of all flows and impact categories and their shares in
+ * the total results. The items of a column are additionally ranked by these
+ * shares, so that cut-off and top-N queries can be answered by a binary
+ * search.
+ * <p>
+ * The columns are computed in the executor of the result editor when they are
+ * requested the first time and the columns of the last requested processes are cached.
+ * The computation of the column of the reference flow is already started when
+ * the index is created.
+ */
+public class ContributionIndex {
+
+	private static final int MAX_COLUMNS = 16;
+
+	private final LcaResult result;
+	private final List<EnviFlow> flows;
+	private final List<ImpactDescriptor> impacts;
+	private final Map<TechFlow, List<Consumer<Column>>> pending = new HashMap<>();
+	private final Map<TechFlow, Column> columns = new LinkedHashMap<>(
+			16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<TechFlow, Column> eldest) {
+			return size() > MAX_COLUMNS;
+		}
+	};
+
+	/**
+	 * The single-threaded executor of the result editor, so that the result is
+	 * not accessed concurrently from the index and the other pages.
+	 */
+	private final ExecutorService executor;
+	private boolean closed;
+
+	public ContributionIndex(
+			LcaResult result, ResultItemOrder items, ExecutorService executor) {
+		this.result = result;
+		this.executor = executor;
+		this.flows = result.hasEnviFlows()
+				? List.copyOf(items.enviFlows())
+				: Collections.emptyList();
+		this.impacts = result.hasImpacts()
+				? List.copyOf(items.impacts())
+				: Collections.emptyList();
+		var ref = result.demand().techFlow();
+		if (ref != null) {
+			get(ref, c -> {
+			});
+		}
+	}
+
+	/**
+	 * Returns the column of the given flow if it is already computed,
+	 * otherwise null.
+	 */
+	public synchronized Column getIfPresent(TechFlow techFlow) {
+		return columns.get(techFlow);
+	}
+
+	/**
+	 * Passes the column of the given flow to the given callback. If the column
+	 * is cached, the callback is directly called in the current thread.
+	 * Otherwise, the column is computed and the callback is called in the
+	 * background thread of the executor.
+	 */
+	public void get(TechFlow techFlow, Consumer<Column> fn) {
+		if (techFlow == null)
+			return;
+		Column column;
+		synchronized (this) {
+			if (closed)
+				return;
+			column = columns.get(techFlow);
+			if (column == null) {
+				var callbacks = pending.get(techFlow);
+				if (callbacks != null) {
+					callbacks.add(fn);
+					return;
+				}
+				callbacks = new ArrayList<>();
+				callbacks.add(fn);
+				pending.put(techFlow, callbacks);
+				try {
+					executor.execute(() -> build(techFlow));
+				} catch (RejectedExecutionException e) {
+					pending.remove(techFlow);
+				}
+				return;
+			}
+		}
+		fn.accept(column);
+	}
+
+	private void build(TechFlow techFlow) {
+		Column column = null;
+		try {
+			column = Column.of(result, techFlow, flows, impacts);
+		} catch (Exception e) {
+			LoggerFactory.getLogger(getClass())
+					.error("failed to compute contributions of " + techFlow, e);
+		}
+		List<Consumer<Column>> callbacks;
+		synchronized (this) {
+			callbacks = pending.remove(techFlow);
+			if (column != null) {
+				columns.put(techFlow, column);
+			}
+		}
+		if (column == null || callbacks == null)
+			return;
+		for (var fn : callbacks) {
+			fn.accept(column);
+		}
+	}
+
+	/**
+	 * Releases the computed columns; no new columns are computed after this.
+	 * This should be called when the result editor is closed. The executor is
+	 * owned by the editor and is not shut down here.
+	 */
+	public void close() {
+		synchronized (this) {
+			closed = true;
+			columns.clear();
+			pending.clear();
+		}
+	}
+
+	/**
+	 * The contributions of a single process.
+	 */
+	public static final class Column {
+
+		private final TechFlow techFlow;
+		private final Map<Object, Integer> positions = new HashMap<>();
+		private final double[] direct;
+		private final double[] total;
+		private final double[] shares;
+
+		private final Ranking<EnviFlow> inputs;
+		private final Ranking<EnviFlow> outputs;
+		private final Ranking<ImpactDescriptor> impacts;
+
+		private Column(TechFlow techFlow, int size,
+				List<EnviFlow> flows, List<ImpactDescriptor> impacts) {
+			this.techFlow = techFlow;
+			direct = new double[size];
+			total = new double[size];
+			shares = new double[size];
+			int pos = 0;
+			for (var flow : flows) {
+				positions.put(flow, pos++);
+			}
+			for (var impact : impacts) {
+				positions.put(impact, pos++);
+			}
+			var ins = new ArrayList<EnviFlow>();
+			var outs = new ArrayList<EnviFlow>();
+			for (var flow : flows) {
+				if (flow.isVirtual())
+					continue;
+				if (flow.isInput()) {
+					ins.add(flow);
+				} else {
+					outs.add(flow);
+				}
+			}
+			this.inputs = new Ranking<>(ins, this);
+			this.outputs = new Ranking<>(outs, this);
+			this.impacts = new Ranking<>(impacts, this);
+		}
+
+		static Column of(LcaResult result, TechFlow techFlow,
+				List<EnviFlow> flows, List<ImpactDescriptor> impacts) {
+			int size = flows.size() + impacts.size();
+			var column = new Column(techFlow, size, flows, impacts);
+			int pos = 0;
+			for (var flow : flows) {
+				double t = result.getTotalFlowOf(flow, techFlow);
+				column.total[pos] = t;
+				column.direct[pos] = result.getDirectFlowOf(flow, techFlow);
+				column.shares[pos] = Contribution.shareOf(
+						t, result.getTotalFlowValueOf(flow));
+				pos++;
+			}
+			for (var impact : impacts) {
+				double t = result.getTotalImpactOf(impact, techFlow);
+				column.total[pos] = t;
+				column.direct[pos] = result.getDirectImpactOf(impact, techFlow);
+				column.shares[pos] = Contribution.shareOf(
+						t, result.getTotalImpactValueOf(impact));
+				pos++;
+			}
+			column.inputs.sort();
+			column.outputs.sort();
+			column.impacts.sort();
+			return column;
+		}
+
+		public TechFlow techFlow() {
+			return techFlow;
+		}
+
+		/** Returns the direct result of the flow or impact category. */
+		public double directOf(Object item) {
+			var pos = positions.get(item);
+			return pos != null ? direct[pos] : 0;
+		}
+
+		/** Returns the upstream result (including the direct result). */
+		public double totalOf(Object item) {
+			var pos = positions.get(item);
+			return pos != null ? total[pos] : 0;
+		}
+
+		/** Returns the share of the upstream result in the total result. */
+		public double shareOf(Object item) {
+			var pos = positions.get(item);
+			return pos != null ? shares[pos] : 0;
+		}
+
+		/** The input flows ranked by their shares. */
+		public Ranking<EnviFlow> inputs() {
+			return inputs;
+		}
+
+		/** The output flows ranked by their shares. */
+		public Ranking<EnviFlow> outputs() {
+			return outputs;
+		}
+
+		/** The impact categories ranked by their shares. */
+		public Ranking<ImpactDescriptor> impacts() {
+			return impacts;
+		}
+	}
+
+	/**
+	 * A list of result items sorted by their shares in descending order.
+	 */
+	public static final class Ranking<T> {
+
+		private final List<T> items;
+		private final Column column;
+		private double[] shares;
+
+		private Ranking(List<T> items, Column column) {
+			this.items = new ArrayList<>(items);
+			this.column = column;
+		}
+
+		private void sort() {
+			items.sort((i1, i2) -> Double.compare(
+					column.shareOf(i2), column.shareOf(i1)));
+			shares = new double[items.size()];
+			for (int i = 0; i < shares.length; i++) {
+				shares[i] = column.shareOf(items.get(i));
+			}
+		}
+
+		/** Returns all items of the ranking. */
+		public List<T> all() {
+			return Collections.unmodifiableList(items);
+		}
+
+		/**
+		 * Returns the items with a share that is larger than the given share.
+		 */
+		public List<T> above(double share) {
+			// find the first position with a share <= the given share
+			int low = 0;
+			int high = shares.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (shares[mid] > share) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return Collections.unmodifiableList(items.subList(0, low));
+		}
+
+		/** Returns the first n items of the ranking. */
+		public List<T> top(int n) {
+			int k = Math.max(0, Math.min(n, items.size()));
+			return Collections.unmodifiableList(items.subList(0, k));
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package org.openlca.app.results;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -42,6 +44,19 @@ public class ResultEditor extends FormEditor {
 	public CalculationSetup setup;
 	public DQResult dqResult;
 	public ResultItemOrder items;
+	public ContributionIndex contributions;
+
+	/**
+	 * The executor through which the pages of the editor access the result in
+	 * the background. The result provider computes its values lazily and is
+	 * not thread-safe; thus, a single thread is used for all pages.
+	 */
+	public final ExecutorService executor = Executors.newSingleThreadExecutor(
+			r -> {
+				var thread = new Thread(r, "result editor");
+				thread.setDaemon(true);
+				return thread;
+			});
 
 	public static void open(CalculationSetup setup, LcaResult result) {
 		open(setup, result, null);
@@ -65,8 +80,11 @@ public class ResultEditor extends FormEditor {
 			dqResult = Cache.getAppCache().remove(inp.dqResultKey, DQResult.class);
 		}
 		setup = Cache.getAppCache().remove(inp.setupKey, CalculationSetup.class);
+		if (result == null || setup == null)
+			throw new PartInitException("The result is not available anymore");
 		items = ResultItemOrder.of(result);
 		Sort.sort(items);
+		contributions = new ContributionIndex(result, items, executor);
 		setPartName(M.ResultsOf + ": " + Labels.name(setup.target()));
 	}
 
@@ -104,6 +122,15 @@ public class ResultEditor extends FormEditor {
 		}
 	}
 
+	@Override
+	public void dispose() {
+		if (contributions != null) {
+			contributions.close();
+		}
+		executor.shutdownNow();
+		super.dispose();
+	}
+
 	private void setSankeyPageListener(SankeyEditor sankeyEditor) {
 		var sankeyInit = new AtomicReference<IPageChangedListener>();
 		IPageChangedListener fn = e -> {
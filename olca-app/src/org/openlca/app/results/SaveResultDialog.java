@@ -105,8 +105,7 @@ public class SaveResultDialog extends FormDialog {
 			? "Save as system process ..."
 			: "Save as result ...";
 		var entity = App.exec(label, exec::run);
-		App.open(entity);
-		Navigator.refresh();
+		Navigator.refreshThen(() -> App.open(entity));
 		super.okPressed();
 	}
 
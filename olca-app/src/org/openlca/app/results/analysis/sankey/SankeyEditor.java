@@ -9,6 +9,7 @@ import org.eclipse.ui.*;
 import org.openlca.app.results.analysis.sankey.actions.EditSankeyConfigAction;
 import org.openlca.app.results.analysis.sankey.actions.LayoutAction;
 import org.openlca.app.results.analysis.sankey.actions.OpenEditorAction;
+import org.openlca.app.results.analysis.sankey.model.SankeyCache;
 import org.openlca.app.results.analysis.sankey.model.SankeyFactory;
 import org.openlca.app.tools.graphics.actions.SaveImageAction;
 import org.openlca.app.results.ResultEditor;
@@ -20,7 +21,6 @@ import org.openlca.core.math.data_quality.DQResult;
 import org.openlca.core.model.RootEntity;
 import org.openlca.core.results.LcaResult;
 import org.openlca.core.results.ResultItemOrder;
-import org.openlca.core.results.Sankey;
 
 import static org.openlca.app.results.analysis.sankey.SankeyConfig.CONFIG_PROP;
 
@@ -35,8 +35,9 @@ public class SankeyEditor extends GraphicalEditorWithFrame {
 	public final RootEntity calculationTarget;
 
 	private final SankeyFactory sankeyFactory = new SankeyFactory(this);
+	private final SankeyCache cache;
 	public final SankeyConfig config;
-	private Sankey<?> sankey;
+	private SankeyCache.Graph graph;
 
 	public SankeyEditor(ResultEditor parent) {
 		this.resultEditor = parent;
@@ -45,6 +46,7 @@ public class SankeyEditor extends GraphicalEditorWithFrame {
 		this.items = parent.items;
 		this.calculationTarget = parent.setup.target();
 		this.config = new SankeyConfig(this);
+		this.cache = new SankeyCache(result, parent.executor);
 	}
 
 	@Override
@@ -144,14 +146,34 @@ public class SankeyEditor extends GraphicalEditorWithFrame {
 			diagram.firePropertyChange(CONFIG_PROP, null, diagram.getConfig());
 		}
 		getGraphicalViewer().setContents(diagram);
+
+		// compute the graphs of the other impact categories in the background
+		// so that switching between them is fast
+		if (result.hasImpacts()) {
+			cache.prefetch(items.impacts(), config.cutoff(), config.maxCount());
+		}
 	}
 
-	public void setSankey(Sankey<?> sankey) {
-		this.sankey = sankey;
+	public SankeyCache getCache() {
+		return cache;
+	}
+
+	@Override
+	public void dispose() {
+		cache.close();
+		super.dispose();
+	}
+
+	/**
+	 * Sets the graph of the current configuration. This is the graph derived
+	 * from the cache, which only contains the nodes that are displayed.
+	 */
+	public void setGraph(SankeyCache.Graph graph) {
+		this.graph = graph;
 	}
 
-	public Sankey<?> getSankey() {
-		return sankey;
+	public SankeyCache.Graph getGraph() {
+		return graph;
 	}
 
 }
@@ -36,7 +36,7 @@ public class SankeyLayout extends GraphLayout {
 
 	@Override
 	public Component getReferenceNode() {
-		return getDiagram().getNode(getDiagram().editor.getSankey().root);
+		return getDiagram().getNode(getDiagram().editor.getGraph().root());
 	}
 
 	@Override
@@ -29,7 +29,7 @@ public class Diagram extends BaseComponent {
 	}
 
 	public boolean isReferenceNode(SankeyNode node) {
-		var refNode = getNode(editor.getSankey().root);
+		var refNode = getNode(editor.getGraph().root());
 		return refNode.equals(node);
 	}
 
@@ -44,8 +44,8 @@ public class Diagram extends BaseComponent {
 
 	@Override
 	public Component getFocusComponent() {
-		return  (editor != null && editor.getSankey() != null)
-				? getNode(editor.getSankey().root)
+		return  (editor != null && editor.getGraph() != null)
+				? getNode(editor.getGraph().root())
 				: null;
 	}
 
@@ -0,0 +1,282 @@
+package org.openlca.app.results.analysis.sankey.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.openlca.core.results.LcaResult;
+import org.openlca.core.results.Sankey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the computed Sankey graphs of a result per selected reference (flow,
+ * impact category, or costs). For each reference, the graph with the lowest
+ * cutoff and the largest node count that was requested so far is kept. When
+ * a configuration with a higher cutoff or a lower node count is requested
+ * later, the graph is derived from the cached graph without computing it
+ * again. Only when a configuration needs nodes that are not in the cached
+ * graph, the graph is computed again and replaces the cached graph. Changes
+ * of the orientation, theme, or connection router do not touch the results
+ * at all.
+ * <p>
+ * The link shares of a graph are computed once and are then also cached. The
+ * graphs of further references can be computed in the background (see
+ * {@link #prefetch}), so that switching the reference in the editor is fast.
+ * <p>
+ * All graphs and link shares are computed in the single-threaded executor of
+ * the result editor, as the result provider is not thread-safe. Prefetched
+ * graphs are scheduled one after another, so that a requested graph only
+ * waits for the graph that is currently computed.
+ */
+public class SankeyCache {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final LcaResult result;
+	private final ExecutorService executor;
+	private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+	private final ArrayDeque<Runnable> prefetches = new ArrayDeque<>();
+	private volatile boolean closed;
+
+	public SankeyCache(LcaResult result, ExecutorService executor) {
+		this.result = result;
+		this.executor = executor;
+	}
+
+	/**
+	 * Returns the graph of the given reference for the given cutoff and
+	 * maximum node count, with its link shares computed. Returns null if the
+	 * graph could not be computed. This blocks until the graph is computed in
+	 * the executor and thus should be called from a background job.
+	 */
+	public Graph get(Object selection, double cutoff, int maxCount) {
+		if (selection == null || closed)
+			return null;
+		try {
+			return executor.submit(() -> graphOf(selection, cutoff, maxCount))
+					.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			log.error("failed to compute Sankey graph", e.getCause());
+			return null;
+		} catch (RejectedExecutionException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Computes the graphs and link shares of the given references in the
+	 * background, one after another.
+	 */
+	public void prefetch(
+			Collection<?> selections, double cutoff, int maxCount) {
+		if (selections == null || selections.isEmpty())
+			return;
+		synchronized (prefetches) {
+			for (var selection : selections) {
+				prefetches.add(() -> graphOf(selection, cutoff, maxCount));
+			}
+		}
+		prefetchNext();
+	}
+
+	private void prefetchNext() {
+		Runnable next;
+		synchronized (prefetches) {
+			next = prefetches.poll();
+		}
+		if (next == null || closed)
+			return;
+		try {
+			executor.execute(() -> {
+				if (closed)
+					return;
+				try {
+					next.run();
+				} catch (Exception e) {
+					log.error("failed to compute Sankey graph", e);
+				}
+				prefetchNext();
+			});
+		} catch (RejectedExecutionException e) {
+			log.trace("Sankey prefetch was stopped");
+		}
+	}
+
+	/**
+	 * Stops the background computations and clears the cache. This should be
+	 * called when the editor is closed. The executor is owned by the result
+	 * editor and is not shut down here.
+	 */
+	public void close() {
+		closed = true;
+		synchronized (prefetches) {
+			prefetches.clear();
+		}
+		entries.clear();
+	}
+
+	/**
+	 * Computes the graph and its link shares; must run in the executor.
+	 */
+	private Graph graphOf(Object selection, double cutoff, int maxCount) {
+		var entry = entryOf(selection, cutoff, maxCount);
+		if (entry == null)
+			return null;
+		var graph = entry.graph(cutoff, maxCount);
+		graph.computeLinkShares();
+		return graph;
+	}
+
+	private Entry entryOf(Object selection, double cutoff, int maxCount) {
+		var entry = entries.get(selection);
+		if (entry != null && entry.covers(cutoff, maxCount))
+			return entry;
+
+		// grow the cached graph so that it covers the old and the new
+		// configuration
+		double c = entry != null
+				? Math.min(cutoff, entry.cutoff)
+				: cutoff;
+		int max = entry != null
+				? Math.max(maxCount, entry.maxCount)
+				: maxCount;
+		var sankey = Sankey.of(selection, result.provider())
+				.withMinimumShare(c)
+				.withMaximumNodeCount(max)
+				.build();
+		if (sankey == null)
+			return null;
+		entry = new Entry(sankey, c, max);
+		entries.put(selection, entry);
+		return entry;
+	}
+
+	private static class Entry {
+
+		final Sankey<?> sankey;
+		final double cutoff;
+		final int maxCount;
+		final List<Sankey.Node> nodes = new ArrayList<>();
+		final Map<Link, Double> linkShares = new ConcurrentHashMap<>();
+
+		Entry(Sankey<?> sankey, double cutoff, int maxCount) {
+			this.sankey = sankey;
+			this.cutoff = cutoff;
+			this.maxCount = maxCount;
+			sankey.traverse(nodes::add);
+		}
+
+		boolean covers(double cutoff, int maxCount) {
+			return cutoff >= this.cutoff && maxCount <= this.maxCount;
+		}
+
+		/**
+		 * Selects the nodes of the given configuration from the nodes of this
+		 * entry. Like when building a Sankey graph, the nodes are expanded in
+		 * the order of their absolute total results, starting from the root,
+		 * until the maximum number of nodes is reached; providers with a share
+		 * below the cutoff are not added.
+		 */
+		Graph graph(double cutoff, int maxCount) {
+			if (cutoff == this.cutoff && maxCount == this.maxCount)
+				return new Graph(this, nodes, null);
+			var queue = new PriorityQueue<Sankey.Node>(Comparator.comparingDouble(
+					(Sankey.Node n) -> Math.abs(n.total)).reversed());
+			var seen = new HashSet<Sankey.Node>();
+			var selected = new ArrayList<Sankey.Node>();
+			queue.add(sankey.root);
+			seen.add(sankey.root);
+			while (!queue.isEmpty()) {
+				if (!selected.isEmpty() && selected.size() >= maxCount)
+					break;
+				var node = queue.poll();
+				selected.add(node);
+				for (var provider : node.providers) {
+					if (!seen.add(provider))
+						continue;
+					if (Math.abs(provider.share) < cutoff)
+						continue;
+					queue.add(provider);
+				}
+			}
+			return new Graph(this, selected, new HashSet<>(selected));
+		}
+	}
+
+	private record Link(Sankey.Node provider, Sankey.Node node) {
+	}
+
+	/**
+	 * A view on a cached Sankey graph with the nodes of a specific
+	 * configuration.
+	 */
+	public static final class Graph {
+
+		private final Entry entry;
+		private final List<Sankey.Node> nodes;
+		private final Set<Sankey.Node> contained;
+
+		private Graph(Entry entry, List<Sankey.Node> nodes,
+				Set<Sankey.Node> contained) {
+			this.entry = entry;
+			this.nodes = Collections.unmodifiableList(nodes);
+			this.contained = contained;
+		}
+
+		/**
+		 * The underlying Sankey graph from which the nodes are taken. Note that
+		 * this can contain more nodes than this graph.
+		 */
+		public Sankey<?> sankey() {
+			return entry.sankey;
+		}
+
+		/** The root node of the graph. */
+		public Sankey.Node root() {
+			return entry.sankey.root;
+		}
+
+		/** The nodes of the graph, starting with the root node. */
+		public List<Sankey.Node> nodes() {
+			return nodes;
+		}
+
+		public boolean contains(Sankey.Node node) {
+			return contained == null || contained.contains(node);
+		}
+
+		/**
+		 * Returns the share of the total result of the given provider that
+		 * flows into the given node. The shares of the links of this graph are
+		 * already computed when the graph is returned from the cache.
+		 */
+		public double linkShare(Sankey.Node provider, Sankey.Node node) {
+			return entry.linkShares.computeIfAbsent(new Link(provider, node),
+					link -> entry.sankey.getLinkShare(provider, node));
+		}
+
+		private void computeLinkShares() {
+			for (var node : nodes) {
+				for (var provider : node.providers) {
+					if (contains(provider)) {
+						linkShare(provider, node);
+					}
+				}
+			}
+		}
+	}
+}
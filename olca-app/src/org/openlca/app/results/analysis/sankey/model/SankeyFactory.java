@@ -1,8 +1,9 @@
 package org.openlca.app.results.analysis.sankey.model;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.openlca.app.App;
 import org.openlca.app.results.analysis.sankey.SankeyEditor;
-import org.openlca.core.results.Sankey;
 
 public class SankeyFactory {
 
@@ -21,36 +22,41 @@ public class SankeyFactory {
 			return new Diagram(editor, config.orientation());
 
 		var diagram = new Diagram(editor, config.orientation());
+		var graph = new AtomicReference<SankeyCache.Graph>();
 		App.runWithProgress("Calculate sankey results",
-				() -> editor.setSankey(Sankey.of(
-						config.selection(), editor.result.provider())
-						.withMinimumShare(config.cutoff())
-						.withMaximumNodeCount(config.maxCount())
-						.build()),
 				() -> {
-					if (editor.getSankey() == null)
+					var g = editor.getCache().get(
+							config.selection(), config.cutoff(), config.maxCount());
+					graph.set(g);
+					editor.setGraph(g);
+				},
+				() -> {
+					var g = graph.get();
+					if (g == null)
 						return;
 
 					// create the nodes
-					editor.getSankey().traverse(n -> {
-						var node = new SankeyNode(n, editor.getSankey());
+					for (var n : g.nodes()) {
+						var node = new SankeyNode(n, g.sankey());
 						diagram.addChild(node);
-					});
+					}
 
 					// create the links
-					editor.getSankey().traverse(n -> {
+					for (var n : g.nodes()) {
 						var target = diagram.getNode(n);
 						if (target == null)
-							return;
+							continue;
 						for (var provider : n.providers) {
+							if (!g.contains(provider))
+								continue;
 							var source = diagram.getNode(provider);
 							if (source == null)
 								continue;
-							var linkShare = editor.getSankey().getLinkShare(provider, n);
+							var linkShare = g.linkShare(provider, n);
 							var ratio = linkShare * provider.share;
 							new SankeyLink(source, target, ratio);
 						}
-					});
+					}
 				});
 
 		return diagram;
@@ -1,5 +1,10 @@
 package org.openlca.app.results.contributions;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
 import org.eclipse.jface.viewers.BaseLabelProvider;
 import org.eclipse.jface.viewers.ITableLabelProvider;
 import org.eclipse.jface.viewers.ITreeContentProvider;
@@ -33,12 +38,35 @@ import org.openlca.core.results.UpstreamTree;
 
 public class ContributionTreePage extends FormPage {
 
+	private static final int MAX_MODELS = 10;
+
 	private final LcaResult result;
 	private final CalculationSetup setup;
 	private final ResultItemOrder items;
 
+	/**
+	 * The lazy tree models of the last selected result indicators. The models
+	 * are reused when the user switches back to an indicator.
+	 */
+	private final Map<Object, UpstreamTreeModel> models = new LinkedHashMap<>(
+			16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<Object, UpstreamTreeModel> eldest) {
+			return size() > MAX_MODELS;
+		}
+	};
+
+	/**
+	 * The executor that computes the upstream trees and their child nodes.
+	 * This is the single-threaded executor of the editor, so that the result
+	 * provider is not accessed concurrently from this and the other pages.
+	 */
+	private final ExecutorService executor;
+
 	private TreeViewer tree;
 	private Object selection;
+	private Object selectionKey;
 
 
 	public ContributionTreePage(ResultEditor editor) {
@@ -46,6 +74,7 @@ public class ContributionTreePage extends FormPage {
 		this.result = editor.result;
 		this.setup = editor.setup;
 		this.items = editor.items;
+		this.executor = editor.executor;
 	}
 
 	@Override
@@ -91,16 +120,16 @@ public class ContributionTreePage extends FormPage {
 
 		// action bindings
 		var onOpen = Actions.onOpen(() -> {
-			UpstreamNode n = Viewers.getFirstSelected(tree);
-			if (n == null || n.provider() == null)
+			Object first = Viewers.getFirstSelected(tree);
+			if (!(first instanceof UpstreamNode n) || n.provider() == null)
 				return;
 			App.open(n.provider().provider());
 		});
 
 		var onExport = Actions.create(M.ExportToExcel,
 				Images.descriptor(FileType.EXCEL), () -> {
-					if (tree.getInput() instanceof UpstreamTree uTree) {
-						TreeExportDialog.open(uTree);
+					if (tree.getInput() instanceof UpstreamTreeModel model) {
+						TreeExportDialog.open(model.tree, executor);
 					}
 				});
 
@@ -114,45 +143,112 @@ public class ContributionTreePage extends FormPage {
 		@Override
 		public void onFlowSelected(EnviFlow flow) {
 			selection = flow;
-			var model = UpstreamTree.of(result.provider(), flow);
-			tree.setInput(model);
+			show(flow, () -> UpstreamTree.of(result.provider(), flow));
 		}
 
 		@Override
 		public void onImpactSelected(ImpactDescriptor impact) {
 			selection = impact;
-			var model = UpstreamTree.of(result.provider(), impact);
-			tree.setInput(model);
+			show(impact, () -> UpstreamTree.of(result.provider(), impact));
 		}
 
 		@Override
 		public void onCostsSelected(CostResultDescriptor cost) {
 			selection = cost;
-			var model = cost.forAddedValue
-					? UpstreamTree.addedValuesOf(result.provider())
-					: UpstreamTree.costsOf(result.provider());
+			if (cost.forAddedValue) {
+				show("added-values",
+						() -> UpstreamTree.addedValuesOf(result.provider()));
+			} else {
+				show("net-costs", () -> UpstreamTree.costsOf(result.provider()));
+			}
+		}
+	}
+
+	/**
+	 * Shows the tree of the given indicator. If there is no cached model for
+	 * that indicator, the tree is created in the background.
+	 */
+	private void show(Object key, Supplier<UpstreamTree> fn) {
+		if (tree.getInput() instanceof UpstreamTreeModel current) {
+			current.expanded = tree.getExpandedElements();
+		}
+		selectionKey = key;
+		var cached = models.get(key);
+		if (cached != null) {
+			setModel(cached);
+			return;
+		}
+		tree.setInput(new Loading(null));
+		var display = tree.getControl().getDisplay();
+		executor.execute(() -> {
+			UpstreamTreeModel model;
+			try {
+				model = new UpstreamTreeModel(fn.get(), executor);
+			} catch (Exception e) {
+				App.runInUI("Report error", () -> ErrorReporter.on(
+						"Failed to calculate upstream tree", e));
+				return;
+			}
+			display.asyncExec(() -> {
+				if (tree.getControl().isDisposed())
+					return;
+				models.put(key, model);
+				if (key.equals(selectionKey)) {
+					setModel(model);
+				}
+			});
+		});
+	}
+
+	private void setModel(UpstreamTreeModel model) {
+		tree.getControl().setRedraw(false);
+		try {
 			tree.setInput(model);
+			if (model.expanded != null) {
+				tree.setExpandedElements(model.expanded);
+			}
+		} finally {
+			tree.getControl().setRedraw(true);
 		}
 	}
 
-	private static class ContentProvider implements ITreeContentProvider {
+	/**
+	 * A placeholder that is shown while the child nodes of a node (or the
+	 * tree itself when the parent is null) are computed.
+	 */
+	private record Loading(UpstreamNode parent) {
+	}
+
+	private class ContentProvider implements ITreeContentProvider {
 
-		private UpstreamTree tree;
+		private UpstreamTreeModel model;
 
 		@Override
 		public Object[] getChildren(Object parent) {
 			if (!(parent instanceof UpstreamNode node))
 				return null;
-			if (tree == null)
+			if (model == null)
 				return null;
-			return tree.childs(node).toArray();
+			var childs = model.childsOf(node);
+			if (childs != null)
+				return childs.toArray();
+			var m = model;
+			var display = tree.getControl().getDisplay();
+			m.load(node, n -> display.asyncExec(() -> {
+				if (tree.getControl().isDisposed() || tree.getInput() != m)
+					return;
+				tree.refresh(n);
+			}));
+			return new Object[]{new Loading(node)};
 		}
 
 		@Override
 		public Object[] getElements(Object input) {
-			return input instanceof UpstreamTree t
-					? new Object[]{t.root}
-					: null;
+			if (input instanceof UpstreamTreeModel m)
+				return new Object[]{m.tree.root};
+			if (input instanceof Loading loading)
+				return new Object[]{loading};
+			return null;
 		}
 
 		@Override
@@ -160,20 +256,23 @@ public class ContributionTreePage extends FormPage {
 			return null;
 		}
 
+		/**
+		 * We do not compute the child nodes just to decide if a node has
+		 * children; unknown nodes are shown as expandable.
+		 */
 		@Override
 		public boolean hasChildren(Object elem) {
-			if (!(elem instanceof UpstreamNode node))
+			if (!(elem instanceof UpstreamNode node) || model == null)
 				return false;
-			return !tree.childs(node).isEmpty();
+			var childs = model.childsOf(node);
+			return childs == null || !childs.isEmpty();
 		}
 
 		@Override
 		public void inputChanged(Viewer viewer, Object old, Object input) {
-			if (!(input instanceof UpstreamTree)) {
-				tree = null;
-				return;
-			}
-			tree = (UpstreamTree) input;
+			model = input instanceof UpstreamTreeModel m
+					? m
+					: null;
 		}
 
 		@Override
@@ -205,6 +304,8 @@ public class ContributionTreePage extends FormPage {
 
 		@Override
 		public String getColumnText(Object obj, int col) {
+			if (obj instanceof Loading)
+				return col == 1 ? "Loading ..." : null;
 			if (!(obj instanceof UpstreamNode node))
 				return null;
 			return switch (col) {
@@ -231,7 +332,9 @@ public class ContributionTreePage extends FormPage {
 		private double getContribution(UpstreamNode node) {
 			if (node.result() == 0)
 				return 0;
-			double total = ((UpstreamTree) tree.getInput()).root.result();
+			if (!(tree.getInput() instanceof UpstreamTreeModel model))
+				return 0;
+			double total = model.tree.root.result();
 			if (total == 0)
 				return 0;
 			return total < 0 && node.result() > 0
@@ -1,12 +1,10 @@
 package org.openlca.app.results.contributions;
 
-import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.jface.viewers.BaseLabelProvider;
 import org.eclipse.jface.viewers.ITableLabelProvider;
 import org.eclipse.jface.viewers.TableViewer;
-import org.eclipse.jface.viewers.Viewer;
-import org.eclipse.jface.viewers.ViewerFilter;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.layout.GridLayout;
@@ -15,9 +13,11 @@ import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.ui.forms.IManagedForm;
 import org.eclipse.ui.forms.editor.FormPage;
 import org.eclipse.ui.forms.widgets.FormToolkit;
+import org.openlca.app.App;
 import org.openlca.app.M;
 import org.openlca.app.components.ContributionImage;
 import org.openlca.app.rcp.images.Icon;
+import org.openlca.app.results.ContributionIndex;
 import org.openlca.app.results.ResultEditor;
 import org.openlca.app.util.Actions;
 import org.openlca.app.util.Controls;
@@ -32,12 +32,16 @@ import org.openlca.core.matrix.index.EnviFlow;
 import org.openlca.core.matrix.index.TechFlow;
 import org.openlca.core.model.CalculationSetup;
 import org.openlca.core.model.descriptors.ImpactDescriptor;
-import org.openlca.core.results.Contribution;
 import org.openlca.core.results.LcaResult;
 import org.openlca.core.results.ResultItemOrder;
 
 /**
  * Shows the single and upstream results of the processes in an analysis result.
+ * The results of a selected process are taken from the contribution index of
+ * the result editor, and the cut-off of the tables is directly selected from
+ * the ranking of the index. The index calculates the results in the executor
+ * of the editor; until the results of a process are available, its tables are
+ * empty. Thus, no results are calculated in the UI thread here.
  */
 public class ProcessResultPage extends FormPage {
 
@@ -64,8 +68,10 @@ public class ProcessResultPage extends FormPage {
 		this.result = editor.result;
 		this.setup = editor.setup;
 		this.items = editor.items;
-		this.flowResult = new ResultProvider(result);
-		this.impactResult = new ResultProvider(result);
+		this.flowResult = new ResultProvider(
+				result, editor.contributions, this::updateFlowTables);
+		this.impactResult = new ResultProvider(
+				result, editor.contributions, this::updateImpactTable);
 	}
 
 	@Override
@@ -95,26 +101,44 @@ public class ProcessResultPage extends FormPage {
 		if (!result.hasEnviFlows())
 			return;
 
-		fillFlows(inputTable);
-		fillFlows(outputTable);
+		updateFlowTables();
 		var refFlow = result.demand().techFlow();
 		flowProcessViewer.select(refFlow);
 
 		if (result.hasImpacts()) {
 			impactCombo.select(refFlow);
-			impactTable.setInput(items.impacts());
+			updateImpactTable();
 		}
 	}
 
-	private void fillFlows(TableViewer table) {
-		boolean input = table == inputTable;
-		var list = new ArrayList<EnviFlow>();
-		for (var f : items.enviFlows()) {
-			if (!f.isVirtual() && f.isInput() == input) {
-				list.add(f);
-			}
+	private void updateFlowTables() {
+		if (inputTable == null || inputTable.getTable().isDisposed())
+			return;
+		var column = flowResult.column();
+		if (column == null) {
+			inputTable.setInput(List.of());
+			outputTable.setInput(List.of());
+			return;
+		}
+		inputTable.setInput(flowCutOff == 0
+				? column.inputs().all()
+				: column.inputs().above(flowCutOff / 100));
+		outputTable.setInput(flowCutOff == 0
+				? column.outputs().all()
+				: column.outputs().above(flowCutOff / 100));
+	}
+
+	private void updateImpactTable() {
+		if (impactTable == null || impactTable.getTable().isDisposed())
+			return;
+		var column = impactResult.column();
+		if (column == null) {
+			impactTable.setInput(List.of());
+			return;
 		}
-		table.setInput(list);
+		impactTable.setInput(impactCutOff == 0
+				? column.impacts().all()
+				: column.impacts().above(impactCutOff / 100));
 	}
 
 	private void createFlowSection(Composite parent) {
@@ -132,8 +156,7 @@ public class ProcessResultPage extends FormPage {
 		flowProcessViewer.setInput(items.techFlows());
 		flowProcessViewer.addSelectionChangedListener((selection) -> {
 			flowResult.setTechFlow(selection);
-			inputTable.refresh();
-			outputTable.refresh();
+			updateFlowTables();
 		});
 
 		UI.label(container, tk, M.DontShowSmallerThen);
@@ -142,8 +165,7 @@ public class ProcessResultPage extends FormPage {
 		UI.label(container, tk, "%");
 		Controls.onSelect(flowSpinner, (e) -> {
 			flowCutOff = flowSpinner.getSelection();
-			inputTable.refresh();
-			outputTable.refresh();
+			updateFlowTables();
 		});
 
 		var resultComp = UI.composite(comp, tk);
@@ -195,7 +217,7 @@ public class ProcessResultPage extends FormPage {
 		impactCombo.setInput(items.techFlows());
 		impactCombo.addSelectionChangedListener((selection) -> {
 			impactResult.setTechFlow(selection);
-			impactTable.refresh();
+			updateImpactTable();
 		});
 		UI.label(container, tk, M.DontShowSmallerThen);
 		impactSpinner = new Spinner(container, SWT.BORDER);
@@ -204,7 +226,7 @@ public class ProcessResultPage extends FormPage {
 		tk.createLabel(container, "%");
 		Controls.onSelect(impactSpinner, (e) -> {
 			impactCutOff = impactSpinner.getSelection();
-			impactTable.refresh();
+			updateImpactTable();
 		});
 		impactTable = createImpactTable(comp);
 	}
@@ -234,7 +256,6 @@ public class ProcessResultPage extends FormPage {
 	}
 
 	private void decorateResultViewer(TableViewer table) {
-		table.setFilters(new CutOffFilter());
 		UI.gridData(table.getTable(), true, true);
 	}
 
@@ -307,75 +328,65 @@ public class ProcessResultPage extends FormPage {
 
 	}
 
-	private class CutOffFilter extends ViewerFilter {
-
-		@Override
-		public boolean select(Viewer viewer, Object parent, Object o) {
-			if (!(o instanceof EnviFlow || o instanceof ImpactDescriptor))
-				return false;
-			boolean forFlow = o instanceof EnviFlow;
-			double cutoff = forFlow ? flowCutOff : impactCutOff;
-			if (cutoff == 0)
-				return true;
-			double c = forFlow
-					? flowResult.getTotalContribution((EnviFlow) o)
-					: impactResult.getTotalContribution((ImpactDescriptor) o);
-			return c * 100 > cutoff;
-		}
-	}
-
+	/**
+	 * Provides the results of the selected process from the contribution
+	 * index. The values are 0 as long as the column of the process is not
+	 * available.
+	 */
 	private static class ResultProvider {
 
-		private final LcaResult result;
+		private final ContributionIndex index;
+		private final Runnable onLoaded;
 		private TechFlow techFlow;
+		private ContributionIndex.Column column;
 
-		public ResultProvider(LcaResult result) {
-			this.techFlow = result.demand().techFlow();
-			this.result = result;
+		public ResultProvider(
+				LcaResult result, ContributionIndex index, Runnable onLoaded) {
+			this.index = index;
+			this.onLoaded = onLoaded;
+			setTechFlow(result.demand().techFlow());
 		}
 
 		public void setTechFlow(TechFlow techFlow) {
 			this.techFlow = techFlow;
+			this.column = null;
+			if (index == null || techFlow == null)
+				return;
+			column = index.getIfPresent(techFlow);
+			if (column != null)
+				return;
+			index.get(techFlow, c -> App.runInUI("Update contributions", () -> {
+				if (c.techFlow().equals(this.techFlow)) {
+					column = c;
+					onLoaded.run();
+				}
+			}));
 		}
 
-		private double getTotalContribution(EnviFlow flow) {
-			if (techFlow == null || flow == null)
-				return 0;
-			double total = result.getTotalFlowValueOf(flow);
-			double value = result.getTotalFlowOf(flow, techFlow);
-			return Contribution.shareOf(value, total);
-		}
-
-		private double getDirectResult(EnviFlow flow) {
-			return techFlow == null || flow == null
-					? 0
-					: result.getDirectFlowOf(flow, techFlow);
-		}
-
-		private double getTotalResult(EnviFlow flow) {
-			return techFlow == null || flow == null
-					? 0
-					: result.getTotalFlowOf(flow, techFlow);
+		/**
+		 * Returns the column of the selected flow from the contribution index
+		 * or null if it is not available yet.
+		 */
+		ContributionIndex.Column column() {
+			return column;
 		}
 
-		private double getTotalContribution(ImpactDescriptor impact) {
-			if (techFlow == null || impact == null)
-				return 0;
-			double total = result.getTotalImpactValueOf(impact);
-			double val = result.getTotalImpactOf(impact, techFlow);
-			return Contribution.shareOf(val, total);
+		private double getTotalContribution(Object item) {
+			return column != null && item != null
+					? column.shareOf(item)
+					: 0;
 		}
 
-		private double getDirectResult(ImpactDescriptor impact) {
-			return techFlow == null || impact == null
-					? 0
-					: result.getDirectImpactOf(impact, techFlow);
+		private double getDirectResult(Object item) {
+			return column != null && item != null
+					? column.directOf(item)
+					: 0;
 		}
 
-		private double getTotalResult(ImpactDescriptor impact) {
-			return techFlow == null || impact == null
-					? 0
-					: result.getTotalImpactOf(impact, techFlow);
+		private double getTotalResult(Object item) {
+			return column != null && item != null
+					? column.totalOf(item)
+					: 0;
 		}
 	}
 
@@ -1,6 +1,9 @@
 package org.openlca.app.results.contributions;
 
 import java.io.File;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.eclipse.jface.dialogs.IDialogConstants;
 import org.eclipse.jface.window.Window;
@@ -16,6 +19,7 @@ import org.openlca.app.M;
 import org.openlca.app.components.FileChooser;
 import org.openlca.app.util.Colors;
 import org.openlca.app.util.Controls;
+import org.openlca.app.util.ErrorReporter;
 import org.openlca.app.util.MsgBox;
 import org.openlca.app.util.UI;
 import org.openlca.core.results.UpstreamTree;
@@ -23,28 +27,36 @@ import org.openlca.core.results.UpstreamTree;
 class TreeExportDialog extends FormDialog {
 
 	private final UpstreamTree tree;
+	private final ExecutorService executor;
 	private File file;
 
 	private Text maxDepthText;
 	private Text minContrText;
 	private Text maxRecurText;
-
-	public static int open(UpstreamTree tree) {
-		if (tree == null)
+	private Text maxRowsText;
+
+	/**
+	 * Opens the export dialog for the given tree. The export is executed in
+	 * the given executor, which must be the executor in which the tree is
+	 * expanded, as the tree is not thread-safe.
+	 */
+	public static int open(UpstreamTree tree, ExecutorService executor) {
+		if (tree == null || executor == null)
 			return Window.CANCEL;
-		return new TreeExportDialog(tree).open();
+		return new TreeExportDialog(tree, executor).open();
 	}
 
-	TreeExportDialog(UpstreamTree tree) {
+	TreeExportDialog(UpstreamTree tree, ExecutorService executor) {
 		super(UI.shell());
 		setBlockOnOpen(true);
 		this.tree = tree;
+		this.executor = executor;
 	}
 
 	@Override
 	protected void configureShell(Shell shell) {
 		shell.setText(M.ExportToExcel);
-		shell.setSize(650, 350);
+		shell.setSize(650, 380);
 		UI.center(UI.shell(), shell);
 		super.configureShell(shell);
 	}
@@ -96,10 +108,17 @@ class TreeExportDialog extends FormDialog {
 		maxRecurText.setEnabled(false);
 		UI.label(comp, tk, "Repetitions");
 
+		// row limit
+		maxRowsText = UI.labeledText(comp, tk, "Max. number of rows");
+		maxRowsText.setText("100000");
+		maxRowsText.setEnabled(false);
+		UI.label(comp, tk, "Largest contributions first");
+
 		Controls.onSelect(maxDepthBtn, _e -> {
 			boolean b = !maxDepthText.isEnabled();
 			maxDepthText.setEnabled(b);
 			maxRecurText.setEnabled(!b);
+			maxRowsText.setEnabled(!b);
 		});
 	}
 
@@ -188,9 +207,40 @@ class TreeExportDialog extends FormDialog {
 			}
 		}
 
+		// maximum number of rows; only used for an unlimited depth
+		if (!maxRowsText.isEnabled()) {
+			export.maxRows = -1;
+		} else {
+			String maxRows = maxRowsText.getText();
+			try {
+				export.maxRows = Integer.parseInt(maxRows);
+				if (export.maxRows <= 0) {
+					MsgBox.error("Invalid value", maxRows
+							+ " is an invalid value for the"
+							+ " maximum number of rows.");
+					return;
+				}
+			} catch (Exception e) {
+				MsgBox.error("Invalid value", maxRows
+						+ " is an invalid value for the"
+						+ " maximum number of rows.");
+				return;
+			}
+		}
+
 		// close the dialog and start the export
 		super.okPressed();
-		App.runWithProgress("Exporting contribution tree ...", export);
+		App.runWithProgress("Exporting contribution tree ...", () -> {
+			try {
+				executor.submit(export).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException | RejectedExecutionException e) {
+				var cause = e.getCause() != null ? e.getCause() : e;
+				App.runInUI("Report error", () -> ErrorReporter.on(
+						"Failed to export contribution tree", cause));
+			}
+		});
 	}
 
 }
@@ -3,10 +3,17 @@ package org.openlca.app.results.contributions;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.PriorityQueue;
 
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.openlca.app.util.CostResultDescriptor;
 import org.openlca.app.util.Labels;
 import org.openlca.core.matrix.index.EnviFlow;
@@ -21,10 +28,28 @@ import org.openlca.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import gnu.trove.list.array.TDoubleArrayList;
-
+/**
+ * Exports an upstream tree to an Excel file. The rows are directly written to
+ * a streaming workbook which only keeps a small window of rows in memory.
+ * <p>
+ * With a limited tree depth, the tree is written in depth-first order up to
+ * the row limit of Excel. With an unlimited depth, the tree of a product system with cycles can have
+ * millions of paths. In this case, the paths are first selected in the order
+ * of their contributions (best-first) until the row limit is reached, and
+ * then only these paths are written. Thus, the export always contains the
+ * paths with the largest contributions.
+ * <p>
+ * The upstream tree and the underlying result are not thread-safe. Thus, the
+ * export must run in the executor of the result editor, in which the tree is
+ * also expanded in the user interface.
+ */
 class UpstreamTreeExport implements Runnable {
 
+	/**
+	 * The maximum row index of an Excel sheet (1048575) minus 1.
+	 */
+	private static final int MAX_EXCEL_ROW = 1048574;
+
 	/**
 	 * The maximum number of levels that should be exported. A value < 0 means
 	 * unlimited. In this case reasonable recursion limits are required if the
@@ -46,14 +71,23 @@ class UpstreamTreeExport implements Runnable {
 	 */
 	public int maxRecursionDepth = 10;
 
+	/**
+	 * The maximum number of tree nodes that are written when the tree depth is
+	 * unlimited. When there are more nodes in the tree, only the paths with the
+	 * largest contributions are exported. A value < 0 means that only the row
+	 * limit of Excel applies. With a limited tree depth, this parameter is
+	 * ignored.
+	 */
+	public int maxRows = 100_000;
+
 	private final File file;
 	private final UpstreamTree tree;
 
 	private Sheet sheet;
 	private int row;
-	private int maxColumn;
+	private int lastRow;
+	private int resultColumn;
 	private double totalResult;
-	private final TDoubleArrayList values = new TDoubleArrayList(100);
 
 	UpstreamTreeExport(File file, UpstreamTree tree) {
 		this.file = file;
@@ -67,32 +101,36 @@ class UpstreamTreeExport implements Runnable {
 			log.error("invalid input, file or tree is null");
 			return;
 		}
-		try (var wb = new XSSFWorkbook()) {
+		var wb = new SXSSFWorkbook(1000);
+		try {
 			sheet = wb.createSheet("Upstream tree");
-
-			var bold = Excel.createBoldStyle(wb);
-			Excel.cell(sheet, 0, 0,
-					"Upstream contributions to: " + refName())
-					.ifPresent(c -> c.setCellStyle(bold));
-			Excel.cell(sheet, 1, 0, "Processes")
-					.ifPresent(c -> c.setCellStyle(bold));
-
-			// write the tree
 			row = 1;
-			maxColumn = 0;
 			totalResult = tree.root.result();
-			Path path = new Path(tree.root);
-			traverse(path);
-
-			// write the values
-			var unit = unit();
-			var resultHeader = Strings.nullOrEmpty(unit)
-					? "Result"
-					: "Result [" + unit + "]";
-			Excel.cell(sheet, 1, maxColumn + 1, resultHeader)
-					.ifPresent(c -> c.setCellStyle(bold));
-			for (int i = 0; i < values.size(); i++) {
-				Excel.cell(sheet, i + 2, maxColumn + 1, values.get(i));
+			var root = new Path(tree.root);
+
+			int maxColumn;
+			if (maxDepth > 0) {
+				lastRow = MAX_EXCEL_ROW;
+				var paths = new ArrayList<Path>();
+				traverse(root, paths);
+				maxColumn = 0;
+				for (var path : paths) {
+					maxColumn = Math.max(maxColumn, path.length);
+				}
+				resultColumn = maxColumn + 1;
+				writeHeader(wb);
+				for (var path : paths) {
+					write(path);
+				}
+			} else {
+				lastRow = maxRows > 0
+						? Math.min(MAX_EXCEL_ROW, maxRows + 1)
+						: MAX_EXCEL_ROW;
+				var selection = select(root);
+				maxColumn = selection.maxLength;
+				resultColumn = maxColumn + 1;
+				writeHeader(wb);
+				write(root, selection);
 			}
 
 			// set the column widths
@@ -109,9 +147,29 @@ class UpstreamTreeExport implements Runnable {
 		} catch (Exception e) {
 			log.error("Tree export failed", e);
 			throw new RuntimeException(e);
+		} finally {
+			wb.dispose();
 		}
 	}
 
+	private void writeHeader(SXSSFWorkbook wb) {
+		var bold = wb.createCellStyle();
+		var font = wb.createFont();
+		font.setBold(true);
+		bold.setFont(font);
+		Excel.cell(sheet, 0, 0,
+				"Upstream contributions to: " + refName())
+				.ifPresent(c -> c.setCellStyle(bold));
+		Excel.cell(sheet, 1, 0, "Processes")
+				.ifPresent(c -> c.setCellStyle(bold));
+		var unit = unit();
+		var resultHeader = Strings.nullOrEmpty(unit)
+				? "Result"
+				: "Result [" + unit + "]";
+		Excel.cell(sheet, 1, resultColumn, resultHeader)
+				.ifPresent(c -> c.setCellStyle(bold));
+	}
+
 	private String refName() {
 		var ref = tree.ref;
 		if (ref == null)
@@ -153,46 +211,108 @@ class UpstreamTreeExport implements Runnable {
 		return "";
 	}
 
-	private void traverse(Path path) {
-
-		if (row >= 1048574) {
-			// 1048575 is the maximum row number of an
-			// Excel sheet.
+	/**
+	 * Collects the paths of the tree in depth-first order. The paths are
+	 * written after the traversal, when the deepest level and thus the result
+	 * column is known. As the paths share their prefixes, this only needs one
+	 * small object per row.
+	 */
+	private void traverse(Path path, List<Path> paths) {
+		if (row + paths.size() >= lastRow || !accept(path))
 			return;
+		paths.add(path);
+		for (var child : tree.childs(path.node)) {
+			traverse(path.append(child), paths);
 		}
+	}
 
+	/**
+	 * Returns true if the given path should be exported.
+	 */
+	private boolean accept(Path path) {
 		var node = path.node;
-		double result = path.node.result();
-
-		// first check if we need to cut the path here
+		double result = node.result();
 		if (result == 0)
-			return;
+			return false;
 		if (maxDepth > 0 && path.length > maxDepth)
-			return;
+			return false;
 		if (minContribution > 0 && totalResult != 0) {
 			double c = Math.abs(result / totalResult);
 			if (c < minContribution)
-				return;
+				return false;
 		}
 		if (maxDepth < 0) {
 			int count = path.count(node.provider());
-			if (count > maxRecursionDepth) {
-				return;
+			return count <= maxRecursionDepth;
+		}
+		return true;
+	}
+
+	/**
+	 * Selects the paths with the largest absolute results. As a path is only
+	 * expanded when it is selected, the selected paths always form a tree
+	 * starting at the root.
+	 */
+	private Selection select(Path root) {
+		var selection = new Selection();
+		if (!accept(root))
+			return selection;
+		int limit = lastRow - row;
+		Comparator<Path> order = (p1, p2) -> Double.compare(
+				Math.abs(p2.node.result()), Math.abs(p1.node.result()));
+		var queue = new PriorityQueue<>(order);
+		queue.add(root);
+		int selected = 0;
+		while (!queue.isEmpty() && selected < limit) {
+			var next = queue.poll();
+			selected++;
+			selection.add(next);
+			for (var child : tree.childs(next.node)) {
+				var path = next.append(child);
+				if (accept(path)) {
+					queue.add(path);
+				}
+			}
+
+			// the paths that are ranked below the number of paths that can
+			// still be selected are never selected; so we can drop them
+			int remaining = limit - selected;
+			if (queue.size() > 4 * remaining + 1024) {
+				var top = new ArrayList<Path>(remaining);
+				for (int i = 0; i < remaining && !queue.isEmpty(); i++) {
+					top.add(queue.poll());
+				}
+				queue.clear();
+				queue.addAll(top);
 			}
 		}
+		return selection;
+	}
 
-		// write the node and expand the child nodes
-		write(path);
-		for (var child : tree.childs(node)) {
-			traverse(path.append(child));
+	/**
+	 * Writes the selected paths in depth-first order.
+	 */
+	private void write(Path root, Selection selection) {
+		if (selection.isEmpty())
+			return;
+		var stack = new ArrayDeque<Path>();
+		stack.push(root);
+		while (!stack.isEmpty() && row < lastRow) {
+			var next = stack.pop();
+			write(next);
+			var childs = selection.childs.get(next);
+			if (childs == null)
+				continue;
+			for (int i = childs.size() - 1; i >= 0; i--) {
+				stack.push(childs.get(i));
+			}
 		}
 	}
 
 	private void write(Path path) {
 		row++;
-		values.add(path.node.result());
+		Excel.cell(sheet, row, resultColumn, path.node.result());
 		int col = path.length;
-		maxColumn = Math.max(col, maxColumn);
 		var node = path.node;
 		if (node.provider() == null
 				|| node.provider().provider() == null)
@@ -201,6 +321,30 @@ class UpstreamTreeExport implements Runnable {
 		Excel.cell(sheet, row, col, label);
 	}
 
+	/**
+	 * The selected paths of a best-first traversal, stored as the selected
+	 * child paths of each selected path.
+	 */
+	private static class Selection {
+
+		final Map<Path, List<Path>> childs = new HashMap<>();
+		int maxLength;
+		boolean empty = true;
+
+		void add(Path path) {
+			empty = false;
+			maxLength = Math.max(maxLength, path.length);
+			if (path.prefix != null) {
+				childs.computeIfAbsent(path.prefix, p -> new ArrayList<>())
+						.add(path);
+			}
+		}
+
+		boolean isEmpty() {
+			return empty;
+		}
+	}
+
 	private static class Path {
 		final Path prefix;
 		final UpstreamNode node;
@@ -0,0 +1,68 @@
+package org.openlca.app.results.contributions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+import org.openlca.core.results.UpstreamNode;
+import org.openlca.core.results.UpstreamTree;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A lazy model of an upstream tree. The child nodes of a node are only
+ * computed when the node is expanded, and this computation runs on the given
+ * executor and not in the UI thread. Computed child nodes are cached, so that
+ * the model (together with its expansion state) can be reused when the user
+ * switches back to the same result indicator.
+ */
+class UpstreamTreeModel {
+
+	final UpstreamTree tree;
+	private final ExecutorService executor;
+	private final Map<UpstreamNode, List<UpstreamNode>> childs
+			= new ConcurrentHashMap<>();
+	private final Map<UpstreamNode, Boolean> loading = new ConcurrentHashMap<>();
+
+	/** The expanded elements when the model was last shown. */
+	Object[] expanded;
+
+	UpstreamTreeModel(UpstreamTree tree, ExecutorService executor) {
+		this.tree = tree;
+		this.executor = executor;
+	}
+
+	/**
+	 * Returns the child nodes of the given node if they were already computed,
+	 * otherwise null.
+	 */
+	List<UpstreamNode> childsOf(UpstreamNode node) {
+		return childs.get(node);
+	}
+
+	/**
+	 * Computes the child nodes of the given node in the background and passes
+	 * the node to the given callback when this is done. The callback is called
+	 * in the background thread. Nothing is done when the child nodes are
+	 * already cached or when they are currently computed.
+	 */
+	void load(UpstreamNode node, Consumer<UpstreamNode> fn) {
+		if (node == null || childs.containsKey(node))
+			return;
+		if (loading.putIfAbsent(node, Boolean.TRUE) != null)
+			return;
+		executor.execute(() -> {
+			try {
+				childs.put(node, tree.childs(node));
+			} catch (Exception e) {
+				LoggerFactory.getLogger(getClass())
+						.error("failed to compute upstream nodes", e);
+				childs.put(node, List.of());
+			} finally {
+				loading.remove(node);
+			}
+			fn.accept(node);
+		});
+	}
+}
@@ -0,0 +1,215 @@
+package org.openlca.app.results.contributions.locations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import org.openlca.app.db.Database;
+import org.openlca.app.results.ResultEditor;
+import org.openlca.app.util.CostResultDescriptor;
+import org.openlca.core.model.Location;
+import org.openlca.core.model.descriptors.FlowDescriptor;
+import org.openlca.core.model.descriptors.ImpactDescriptor;
+import org.openlca.core.results.Contribution;
+import org.openlca.core.results.LocationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aggregates the results of an editor by locations. The location
+ * contributions of an indicator (a flow, impact category, or costs) are only
+ * calculated when the indicator is selected. They are then kept as a row
+ * with one value per location in a small cache of the most recently used
+ * indicators, so that switching between indicators or changing the cut-off
+ * does not calculate them again.
+ * <p>
+ * The calculations run one after another in the single-threaded executor of
+ * the editor, as the result provider is not thread-safe.
+ * <p>
+ * New contribution objects are created from the matrix for every request, as
+ * the location tree caches the filtered child contributions in these objects.
+ */
+class LocationAggregation {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final ExecutorService executor;
+	private final LocationResult result;
+
+	private final List<Location> locations = new ArrayList<>();
+	private final Map<Long, Integer> locationIndex = new HashMap<>();
+	private final Map<Object, Row> rows = new RowCache();
+	private volatile boolean disposed;
+
+	LocationAggregation(ResultEditor editor) {
+		this.executor = editor.executor;
+		this.result = new LocationResult(editor.result, Database.get());
+	}
+
+	/**
+	 * Passes the location contributions of the given indicator to the given
+	 * callback. If the row of the indicator is already calculated, the callback
+	 * is directly called in the current thread. Otherwise, the callback is
+	 * called in the background thread of the executor.
+	 */
+	void getContributions(
+			Object indicator, Consumer<List<Contribution<Location>>> fn) {
+		var key = keyOf(indicator);
+		if (key == null) {
+			fn.accept(List.of());
+			return;
+		}
+		Row row;
+		synchronized (rows) {
+			row = rows.get(key);
+		}
+		if (row != null) {
+			fn.accept(contributionsOf(row));
+			return;
+		}
+		submit(() -> {
+			var r = rowOf(indicator);
+			fn.accept(r != null ? contributionsOf(r) : List.of());
+		});
+	}
+
+	private List<Contribution<Location>> contributionsOf(Row row) {
+		var list = new ArrayList<Contribution<Location>>();
+		synchronized (locations) {
+			for (int i = 0; i < row.amounts.length; i++) {
+				double amount = row.amounts[i];
+				if (Double.isNaN(amount))
+					continue;
+				var c = Contribution.of(locations.get(i));
+				c.amount = amount;
+				c.share = row.shares[i];
+				list.add(c);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Stops the calculations that are not started yet and clears the cache.
+	 * The executor is owned by the editor and is not shut down here.
+	 */
+	void dispose() {
+		disposed = true;
+		synchronized (rows) {
+			rows.clear();
+		}
+	}
+
+	private void submit(Runnable task) {
+		if (disposed)
+			return;
+		try {
+			executor.execute(() -> {
+				if (disposed)
+					return;
+				try {
+					task.run();
+				} catch (Exception e) {
+					log.error("failed to aggregate location results", e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			log.trace("location aggregation was stopped");
+		}
+	}
+
+	private Row rowOf(Object indicator) {
+		var key = keyOf(indicator);
+		if (key == null)
+			return null;
+		synchronized (rows) {
+			var row = rows.get(key);
+			if (row != null)
+				return row;
+		}
+		var contributions = calculate(indicator);
+		if (contributions == null)
+			return null;
+		var row = toRow(contributions);
+		synchronized (rows) {
+			rows.put(key, row);
+		}
+		return row;
+	}
+
+	private List<Contribution<Location>> calculate(Object indicator) {
+		if (indicator instanceof FlowDescriptor flow)
+			return result.getContributions(flow);
+		if (indicator instanceof ImpactDescriptor impact)
+			return result.getContributions(impact);
+		if (indicator instanceof CostResultDescriptor costs)
+			return costs.forAddedValue
+					? result.getAddedValueContributions()
+					: result.getNetCostsContributions();
+		return null;
+	}
+
+	/**
+	 * Converts the contributions into a matrix row. Locations that are not
+	 * contained in the contributions are set to NaN in that row.
+	 */
+	private Row toRow(List<Contribution<Location>> contributions) {
+		synchronized (locations) {
+			for (var c : contributions) {
+				if (c.item == null || locationIndex.containsKey(c.item.id))
+					continue;
+				locationIndex.put(c.item.id, locations.size());
+				locations.add(c.item);
+			}
+			var amounts = new double[locations.size()];
+			var shares = new double[locations.size()];
+			Arrays.fill(amounts, Double.NaN);
+			for (var c : contributions) {
+				if (c.item == null)
+					continue;
+				int i = locationIndex.get(c.item.id);
+				amounts[i] = c.amount;
+				shares[i] = c.share;
+			}
+			return new Row(amounts, shares);
+		}
+	}
+
+	private static Object keyOf(Object indicator) {
+		if (indicator instanceof FlowDescriptor flow)
+			return new Key(FlowDescriptor.class, flow.id);
+		if (indicator instanceof ImpactDescriptor impact)
+			return new Key(ImpactDescriptor.class, impact.id);
+		if (indicator instanceof CostResultDescriptor costs)
+			return new Key(CostResultDescriptor.class, costs.forAddedValue ? 1 : 0);
+		return null;
+	}
+
+	private record Key(Class<?> type, long id) {
+	}
+
+	private record Row(double[] amounts, double[] shares) {
+	}
+
+	/**
+	 * Keeps the rows of the most recently used indicators.
+	 */
+	private static class RowCache extends LinkedHashMap<Object, Row> {
+
+		private static final int MAX_SIZE = 50;
+
+		RowCache() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, Row> eldest) {
+			return size() > MAX_SIZE;
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package org.openlca.app.results.contributions.locations;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.eclipse.jface.viewers.TreeViewer;
@@ -9,13 +10,13 @@ import org.eclipse.swt.custom.SashForm;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.ui.forms.IManagedForm;
 import org.eclipse.ui.forms.editor.FormPage;
 import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.openlca.app.App;
 import org.openlca.app.M;
-import org.openlca.app.db.Database;
 import org.openlca.app.rcp.images.Icon;
 import org.openlca.app.results.ResultEditor;
 import org.openlca.app.util.Actions;
@@ -32,7 +33,6 @@ import org.openlca.core.model.descriptors.FlowDescriptor;
 import org.openlca.core.model.descriptors.ImpactDescriptor;
 import org.openlca.core.model.descriptors.RootDescriptor;
 import org.openlca.core.results.Contribution;
-import org.openlca.core.results.LocationResult;
 import org.openlca.util.Strings;
 
 /**
@@ -42,7 +42,7 @@ import org.openlca.util.Strings;
 public class LocationPage extends FormPage {
 
 	final ResultEditor editor;
-	private final LocationResult locations;
+	private final LocationAggregation locations;
 
 	private Combo combos;
 	private TreeViewer tree;
@@ -54,7 +54,7 @@ public class LocationPage extends FormPage {
 	public LocationPage(ResultEditor editor) {
 		super(editor, "analysis.MapPage", M.Locations);
 		this.editor = editor;
-		this.locations = new LocationResult(editor.result, Database.get());
+		this.locations = new LocationAggregation(editor);
 	}
 
 	public Object getSelection() {
@@ -78,6 +78,12 @@ public class LocationPage extends FormPage {
 		refreshSelection();
 	}
 
+	@Override
+	public void dispose() {
+		locations.dispose();
+		super.dispose();
+	}
+
 	private void createCombos(Composite body, FormToolkit tk) {
 
 		Composite outer = UI.composite(body, tk);
@@ -156,20 +162,24 @@ public class LocationPage extends FormPage {
 
 	private void onSelected(Object obj) {
 		label.update(obj);
-		if (obj instanceof FlowDescriptor f) {
-			update(locations.getContributions(f));
-			return;
-		}
-		if (obj instanceof ImpactDescriptor i) {
-			update(locations.getContributions(i));
-			return;
-		}
-		if (obj instanceof CostResultDescriptor c) {
-			if (c.forAddedValue) {
-				update(locations.getAddedValueContributions());
-			} else {
-				update(locations.getNetCostsContributions());
-			}
+		if (obj instanceof FlowDescriptor
+				|| obj instanceof ImpactDescriptor
+				|| obj instanceof CostResultDescriptor) {
+			var display = Display.getCurrent();
+			locations.getContributions(obj, items -> {
+				if (Display.getCurrent() == display) {
+					update(items);
+					return;
+				}
+				// the row was calculated in the background
+				display.asyncExec(() -> {
+					if (tree == null
+							|| tree.getControl().isDisposed()
+							|| !Objects.equals(obj, getSelection()))
+						return;
+					update(items);
+				});
+			});
 		}
 	}
 
@@ -27,6 +27,7 @@ import org.openlca.core.results.Contribution;
 import org.openlca.geo.calc.Bounds;
 import org.openlca.geo.geojson.Feature;
 import org.openlca.geo.geojson.FeatureCollection;
+import org.openlca.geo.geojson.Geometry;
 import org.openlca.geo.geojson.GeoJSON;
 import org.openlca.util.Pair;
 
@@ -37,11 +38,13 @@ class ResultMap {
 	private LayerConfig layer;
 
 	/**
-	 * Caches the sizes of the location bounds. We want to render smaller geometries
-	 * on top of larger geometries and to do this, we sort them by the size of their
-	 * bounds.
+	 * Caches the unpacked geometries of the locations and the sizes of their
+	 * bounds by location ID. Unpacking the GeoJSON data of a location is
+	 * expensive, so we do this only once per location and not on every update.
+	 * We want to render smaller geometries on top of larger geometries and to
+	 * do this, we sort them by the size of their bounds.
 	 */
-	private final Map<Location, Double> bsize = new HashMap<>();
+	private final Map<Long, Shape> shapes = new HashMap<>();
 
 	private ResultMap() {
 	}
@@ -73,30 +76,27 @@ class ResultMap {
 		}
 
 		coll = new FeatureCollection();
-		List<Pair<Location, Feature>> pairs = new ArrayList<>();
+		List<Pair<Shape, Feature>> pairs = new ArrayList<>();
 		for (var c : contributions) {
 			var location = c.item;
-			if (location == null || location.geodata == null)
+			if (location == null)
 				continue;
-			var fc = GeoJSON.unpack(location.geodata);
-			if (fc == null || fc.features.isEmpty())
-				continue;
-			var g = fc.features.get(0).geometry;
-			if (g == null)
+			var shape = shapeOf(location);
+			if (shape == Shape.NONE)
 				continue;
 			var feature = new Feature();
-			feature.geometry = g;
+			feature.geometry = shape.geometry;
 			feature.properties = new HashMap<>();
 			feature.properties.put("result", c.amount);
 			addMetaData(location, feature, selection);
-			pairs.add(Pair.of(location, feature));
+			pairs.add(Pair.of(shape, feature));
 		}
 
 		if (pairs.isEmpty())
 			return;
-		pairs.stream().sorted((p1, p2) -> {
-			return Double.compare(bsize(p2), bsize(p1));
-		}).forEach(p -> coll.features.add(p.second));
+		pairs.stream()
+				.sorted((p1, p2) -> Double.compare(p2.first.size, p1.first.size))
+				.forEach(p -> coll.features.add(p.second));
 
 		layer = map.addLayer(coll)
 				.fillScale("result")
@@ -131,12 +131,20 @@ class ResultMap {
 		}
 	}
 
-	private double bsize(Pair<Location, Feature> pair) {
-		return bsize.computeIfAbsent(pair.first, loc -> {
-			Feature f = pair.second;
+	private Shape shapeOf(Location location) {
+		return shapes.computeIfAbsent(location.id, id -> {
+			if (location.geodata == null)
+				return Shape.NONE;
+			var fc = GeoJSON.unpack(location.geodata);
+			if (fc == null || fc.features.isEmpty())
+				return Shape.NONE;
+			var f = fc.features.get(0);
+			if (f.geometry == null)
+				return Shape.NONE;
 			Bounds bounds = Bounds.of(f);
-			return Math.abs(bounds.maxX - bounds.minX)
+			double size = Math.abs(bounds.maxX - bounds.minX)
 					* Math.abs(bounds.maxY - bounds.minY);
+			return new Shape(f.geometry, size);
 		});
 	}
 
@@ -157,4 +165,8 @@ class ResultMap {
 			ErrorReporter.on("Failed to export result map to: " + file, e);
 		}
 	}
+
+	private record Shape(Geometry geometry, double size) {
+		static final Shape NONE = new Shape(null, 0);
+	}
 }
@@ -26,6 +26,7 @@ public class SimulationEditor extends SimpleFormEditor {
 
 	CalculationSetup setup;
 	Simulator simulator;
+	SimulationPool pool;
 
 	/**
 	 * Initializes the Monte Carlo simulation of a product system and opens the
@@ -51,8 +52,19 @@ public class SimulationEditor extends SimpleFormEditor {
 		super.init(site, editorInput);
 		var input = (SimulationInput) editorInput;
 		setup = Cache.getAppCache().remove(input.setupKey, CalculationSetup.class);
-		setPartName(Strings.cut(Labels.name(setup.target()), 75));
 		simulator = Cache.getAppCache().remove(input.solverKey, Simulator.class);
+		if (setup == null || simulator == null)
+			throw new PartInitException("The simulation is not available anymore");
+		pool = new SimulationPool(this);
+		setPartName(Strings.cut(Labels.name(setup.target()), 75));
+	}
+
+	@Override
+	public void dispose() {
+		if (pool != null) {
+			pool.close();
+		}
+		super.dispose();
 	}
 
 	@Override
@@ -0,0 +1,219 @@
+package org.openlca.app.results.simulation;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openlca.app.M;
+import org.openlca.app.util.Labels;
+import org.openlca.app.util.Numbers;
+import org.openlca.core.matrix.index.TechFlow;
+import org.openlca.core.model.CalculationSetup;
+import org.openlca.io.xls.Excel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the values of a {@link SimulationStore} to an Excel file. The rows
+ * are written in a streaming workbook so that only a small window of rows is
+ * kept in memory; the values of a result item are read column by column from
+ * the store.
+ */
+class SimulationExport implements Runnable {
+
+	/** The maximum number of columns of an Excel sheet. */
+	private static final int MAX_COLUMNS = 16384;
+
+	private static final String[] STATS_HEADER = {
+			M.NumberOfIterations,
+			M.Mean,
+			M.StandardDeviation,
+			M.Minimum,
+			M.Maximum,
+			M.Median,
+			"5% " + M.Percentile,
+			"95% " + M.Percentile};
+
+	private final File file;
+	private final SimulationStore store;
+	private final CalculationSetup setup;
+
+	private CellStyle bold;
+
+	SimulationExport(File file, SimulationStore store, CalculationSetup setup) {
+		this.file = file;
+		this.store = store;
+		this.setup = setup;
+	}
+
+	@Override
+	public void run() {
+		Logger log = LoggerFactory.getLogger(getClass());
+		if (file == null || store == null) {
+			log.error("invalid input, file or store is null");
+			return;
+		}
+		var wb = new SXSSFWorkbook(100);
+		try {
+			bold = wb.createCellStyle();
+			var font = wb.createFont();
+			font.setBold(true);
+			bold.setFont(font);
+			writeSetup(wb.createSheet(M.Settings));
+			writeFlows(wb.createSheet(M.InventoryResults), null);
+			if (!store.impacts().isEmpty()) {
+				writeImpacts(wb.createSheet(M.ImpactAssessmentResults), null);
+			}
+			int i = 0;
+			for (var pin : store.pins()) {
+				i++;
+				writeFlows(wb.createSheet(sheetName(M.Inventory, i)), pin);
+				if (!store.impacts().isEmpty()) {
+					writeImpacts(wb.createSheet(sheetName(M.ImpactAnalysis, i)), pin);
+				}
+			}
+			try (var fout = new FileOutputStream(file);
+					var buff = new BufferedOutputStream(fout)) {
+				wb.write(buff);
+			}
+		} catch (Exception e) {
+			log.error("Simulation export failed", e);
+			throw new RuntimeException(e);
+		} finally {
+			wb.dispose();
+		}
+	}
+
+	private void writeSetup(Sheet sheet) {
+		header(sheet, 0, 0, M.MonteCarloSimulation);
+		if (setup == null)
+			return;
+		Excel.cell(sheet, 1, 0, M.ProductSystem);
+		Excel.cell(sheet, 1, 1, Labels.name(setup.target()));
+		Excel.cell(sheet, 2, 0, M.Process);
+		Excel.cell(sheet, 2, 1, Labels.name(setup.process()));
+		Excel.cell(sheet, 3, 0, M.QuantitativeReference);
+		Excel.cell(sheet, 3, 1, Numbers.format(setup.amount(), 2) + " "
+				+ Labels.name(setup.unit()) + " "
+				+ Labels.name(setup.flow()));
+		Excel.cell(sheet, 4, 0, M.NumberOfSimulations);
+		Excel.cell(sheet, 4, 1, setup.simulationRuns().orElse(0));
+	}
+
+	private void writeFlows(Sheet sheet, TechFlow pin) {
+		int row = title(sheet, pin);
+		header(sheet, row, 0, M.Flow);
+		header(sheet, row, 1, M.Category);
+		header(sheet, row, 2, M.Unit);
+		int runs = statsHeader(sheet, row, 3, pin);
+		int idx = 0;
+		for (var flow : store.flows()) {
+			row++;
+			Excel.cell(sheet, row, 0, Labels.name(flow));
+			Excel.cell(sheet, row, 1, Labels.category(flow));
+			Excel.cell(sheet, row, 2, Labels.refUnit(flow));
+			values(sheet, row, 3, store.stats(pin, idx++),
+					store.values(pin, flow), runs);
+		}
+	}
+
+	private void writeImpacts(Sheet sheet, TechFlow pin) {
+		int row = title(sheet, pin);
+		header(sheet, row, 0, M.ImpactCategory);
+		header(sheet, row, 1, M.Unit);
+		int runs = statsHeader(sheet, row, 2, pin);
+		int idx = store.flows().size();
+		for (var impact : store.impacts()) {
+			row++;
+			Excel.cell(sheet, row, 0, Labels.name(impact));
+			Excel.cell(sheet, row, 1, impact.referenceUnit);
+			values(sheet, row, 2, store.stats(pin, idx++),
+					store.values(pin, impact), runs);
+		}
+	}
+
+	/**
+	 * Writes the title of a sheet with upstream results of a pinned product
+	 * and returns the row of the table header.
+	 */
+	private int title(Sheet sheet, TechFlow pin) {
+		if (pin == null)
+			return 0;
+		header(sheet, 0, 0, M.UpstreamResultsOf + ": " + Labels.name(pin));
+		return 2;
+	}
+
+	/**
+	 * Writes the header of the statistics and iteration columns and returns
+	 * the number of iteration columns that fit into the sheet.
+	 */
+	private int statsHeader(Sheet sheet, int row, int col, TechFlow pin) {
+		for (var h : STATS_HEADER) {
+			header(sheet, row, col++, h);
+		}
+		var first = !store.flows().isEmpty()
+				? store.values(pin, store.flows().get(0))
+				: !store.impacts().isEmpty()
+				? store.values(pin, store.impacts().get(0))
+				: new double[0];
+		int runs = Math.min(first.length, MAX_COLUMNS - col);
+		for (int i = 0; i < runs; i++) {
+			header(sheet, row, col + i, M.Iteration + " " + (i + 1));
+		}
+		return runs;
+	}
+
+	/**
+	 * Writes the statistics and values of a result item. Mean, standard
+	 * deviation, and range are taken from the online statistics of the store,
+	 * the percentiles are calculated from the sorted values.
+	 */
+	private void values(Sheet sheet, int row, int col,
+			SimulationStore.Stats stats, double[] values, int runs) {
+		Excel.cell(sheet, row, col, stats.count());
+		if (values.length > 0) {
+			var sorted = Arrays.copyOf(values, values.length);
+			Arrays.sort(sorted);
+			Excel.cell(sheet, row, col + 1, stats.mean());
+			Excel.cell(sheet, row, col + 2, stats.sd());
+			Excel.cell(sheet, row, col + 3, stats.min());
+			Excel.cell(sheet, row, col + 4, stats.max());
+			Excel.cell(sheet, row, col + 5, percentile(sorted, 50));
+			Excel.cell(sheet, row, col + 6, percentile(sorted, 5));
+			Excel.cell(sheet, row, col + 7, percentile(sorted, 95));
+		}
+		int offset = col + STATS_HEADER.length;
+		int n = Math.min(runs, values.length);
+		for (int i = 0; i < n; i++) {
+			Excel.cell(sheet, row, offset + i, values[i]);
+		}
+	}
+
+	/**
+	 * Returns the name of a sheet with upstream results of the i-th pinned
+	 * product; translated labels can contain characters or have a length that
+	 * is not allowed in sheet names.
+	 */
+	private static String sheetName(String label, int i) {
+		var suffix = " - " + i;
+		var name = label.length() + suffix.length() > 31
+				? label.substring(0, 31 - suffix.length()) + suffix
+				: label + suffix;
+		return WorkbookUtil.createSafeSheetName(name);
+	}
+
+	private static double percentile(double[] sorted, int p) {
+		int idx = (int) Math.round((p / 100.0) * (sorted.length - 1));
+		return sorted[Math.max(0, Math.min(idx, sorted.length - 1))];
+	}
+
+	private void header(Sheet sheet, int row, int col, String text) {
+		Excel.cell(sheet, row, col, text)
+				.ifPresent(c -> c.setCellStyle(bold));
+	}
+}
@@ -4,40 +4,42 @@ import org.eclipse.jface.action.Action;
 import org.openlca.app.App;
 import org.openlca.app.M;
 import org.openlca.app.components.FileChooser;
-import org.openlca.app.db.Cache;
 import org.openlca.app.rcp.images.Images;
 import org.openlca.app.util.FileType;
+import org.openlca.app.util.MsgBox;
 import org.openlca.core.model.CalculationSetup;
-import org.openlca.core.results.SimulationResult;
-import org.openlca.io.xls.results.SimulationResultExport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 class SimulationExportAction extends Action {
 
 	private Logger log = LoggerFactory.getLogger(getClass());
-	private SimulationResult result;
+	private SimulationPool pool;
 	private CalculationSetup setup;
 
-	public SimulationExportAction(SimulationResult result,
+	public SimulationExportAction(SimulationPool pool,
 			CalculationSetup setup) {
 		setId("SimulationResultExport");
 		setToolTipText(M.ExportResultsToExcel);
 		setImageDescriptor(Images.descriptor(FileType.EXCEL));
-		this.result = result;
+		this.pool = pool;
 		this.setup = setup;
 	}
 
 	@Override
 	public void run() {
+		var store = pool.store();
+		if (store == null) {
+			MsgBox.info(M.ExportResultsToExcel,
+					"The simulation has not been started yet.");
+			return;
+		}
 		var file = FileChooser.forSavingFile(M.Export, "simulation_result.xlsx");
 		if (file == null)
 			return;
 		App.run(M.ExportResultsToExcel, () -> {
 			try {
-				var export = new SimulationResultExport(
-						setup, result, Cache.getEntityCache());
-				export.run(file);
+				new SimulationExport(file, store, setup).run();
 			} catch (Exception e) {
 				log.error("Result export failed", e);
 			}
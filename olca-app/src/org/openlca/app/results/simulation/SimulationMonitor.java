@@ -5,8 +5,8 @@ import org.eclipse.core.runtime.IProgressMonitor;
 /** The monitor of the simulation. */
 class SimulationMonitor implements IProgressMonitor {
 
-	private boolean canceled = false;
-	private boolean running = false;
+	private volatile boolean canceled = false;
+	private volatile boolean running = false;
 
 	@Override
 	public void beginTask(String name, int totalWork) {
@@ -23,6 +23,7 @@ import org.openlca.app.util.UI;
 import org.openlca.app.viewers.combo.AbstractComboViewer;
 import org.openlca.app.viewers.combo.ImpactCategoryViewer;
 import org.openlca.core.math.Simulator;
+import org.openlca.core.matrix.index.EnviFlow;
 import org.openlca.core.matrix.index.TechFlow;
 import org.openlca.core.model.Flow;
 import org.openlca.core.model.Unit;
@@ -34,7 +35,7 @@ class SimulationPage extends FormPage {
 
 	private final int FLOW = 0;
 	private final int IMPACT = 1;
-	private int resultType = FLOW;
+	private volatile int resultType = FLOW;
 
 	private final SimulationEditor editor;
 	private final Simulator simulator;
@@ -51,7 +52,14 @@ class SimulationPage extends FormPage {
 	/**
 	 * A pinned product which results should be displayed.
 	 */
-	private TechFlow resultPin;
+	private volatile TechFlow resultPin;
+
+	/**
+	 * The selected flow and impact category. These are also read from the
+	 * simulation workers when the progress is updated.
+	 */
+	private volatile EnviFlow selectedFlow;
+	private volatile ImpactDescriptor selectedImpact;
 
 	public SimulationPage(SimulationEditor editor) {
 		super(editor, "SimulationPage", M.MonteCarloSimulation);
@@ -130,7 +138,7 @@ class SimulationPage extends FormPage {
 			return;
 		Section section = UI.section(body, tk, M.Results);
 		SimulationExportAction exportAction = new SimulationExportAction(
-			result, editor.setup);
+			editor.pool, editor.setup);
 		Actions.bind(section, exportAction);
 		Composite comp = UI.sectionClient(section, tk);
 		initFlowCheckViewer(tk, comp);
@@ -167,30 +175,43 @@ class SimulationPage extends FormPage {
 	private void updateSelection() {
 		if (result == null || statisticsCanvas == null)
 			return;
+		selectedFlow = flowViewer != null ? flowViewer.getSelected() : null;
+		selectedImpact = impactViewer != null ? impactViewer.getSelected() : null;
+		var values = values();
+		if (values != null) {
+			statisticsCanvas.setValues(values);
+		}
+	}
+
+	/**
+	 * Returns the simulation values of the current selection. This method does
+	 * not access any widgets so that it can be called from a worker thread.
+	 */
+	double[] values() {
+		var pool = editor.pool;
+		if (pool == null)
+			return null;
+		var pin = resultPin;
 		if (resultType == FLOW) {
-			var flow = flowViewer.getSelected();
-			if (flow == null)
-				return;
-			double[] vals = resultPin != null
-				? result.getAllUpstream(resultPin, flow)
-				: result.getAll(flow);
-			statisticsCanvas.setValues(vals);
-		} else {
-			ImpactDescriptor cat = impactViewer.getSelected();
-			if (cat == null)
-				return;
-			double[] vals = resultPin != null
-				? result.getAllUpstream(resultPin, cat)
-				: result.getAll(cat);
-			statisticsCanvas.setValues(vals);
+			var flow = selectedFlow;
+			return flow != null
+				? pool.getAll(flow, pin)
+				: null;
 		}
+		var impact = selectedImpact;
+		return impact != null
+			? pool.getAll(impact, pin)
+			: null;
 	}
 
-	void updateProgress() {
-		if (result == null)
+	void updateProgress(int finished, double[] values) {
+		if (result == null || progressBar.isDisposed())
 			return;
-		updateSelection();
-		progressBar.setSelection(progressBar.getSelection() + 1);
+		if (values != null && statisticsCanvas != null
+			&& !statisticsCanvas.isDisposed()) {
+			statisticsCanvas.setValues(values);
+		}
+		progressBar.setSelection(finished);
 	}
 
 	void progressDone() {
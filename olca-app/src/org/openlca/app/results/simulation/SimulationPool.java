@@ -0,0 +1,328 @@
+package org.openlca.app.results.simulation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+import org.openlca.app.App;
+import org.openlca.app.db.Database;
+import org.openlca.app.preferences.FeatureFlag;
+import org.openlca.core.math.Simulator;
+import org.openlca.core.matrix.index.EnviFlow;
+import org.openlca.core.matrix.index.TechFlow;
+import org.openlca.core.model.descriptors.ImpactDescriptor;
+import org.openlca.core.results.ResultItemOrder;
+import org.openlca.core.results.SimulationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the iterations of a Monte Carlo simulation. In the parallel mode (see
+ * {@link FeatureFlag#PARALLEL_SIMULATION}), the iterations are distributed
+ * over a pool of workers. Each worker has its own simulator and thus its own
+ * matrices and solver state. The iteration i is always executed by the worker
+ * i mod n and its values are stored under that iteration number so that they
+ * are always read in the order of the iterations, independent of how fast the
+ * single workers are.
+ * <p>
+ * The values of each iteration are directly moved into a
+ * {@link SimulationStore} outside of the Java heap. As a simulator keeps the
+ * values of all its iterations in memory, a worker replaces its simulator
+ * with a new one after {@link #RUNS_PER_SIMULATOR} iterations, also when the
+ * iterations are not executed in parallel. This limits the memory of the
+ * simulation results and also the length of the value series that are copied
+ * from a simulation result for each iteration.
+ */
+class SimulationPool {
+
+	/**
+	 * The maximum number of iterations that are executed by a single
+	 * simulator. Creating a simulator loads the model data again (mostly from
+	 * the matrix cache), so this should not be too small.
+	 */
+	private static final int RUNS_PER_SIMULATOR = 100;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final SimulationEditor editor;
+	private final List<EnviFlow> flows;
+	private final List<ImpactDescriptor> impacts;
+	private final int threads;
+	private final AtomicInteger finished = new AtomicInteger();
+	private final AtomicBoolean mainUsed = new AtomicBoolean();
+	private volatile SimulationStore store;
+
+	SimulationPool(SimulationEditor editor) {
+		this.editor = editor;
+		var result = editor.simulator.getResult();
+		if (result != null) {
+			var items = ResultItemOrder.of(result);
+			flows = List.copyOf(items.enviFlows());
+			impacts = result.hasImpacts()
+					? List.copyOf(items.impacts())
+					: Collections.emptyList();
+		} else {
+			flows = Collections.emptyList();
+			impacts = Collections.emptyList();
+		}
+		this.threads = threadsOf(editor);
+	}
+
+	private static int threadsOf(SimulationEditor editor) {
+		if (!FeatureFlag.PARALLEL_SIMULATION.isEnabled())
+			return 1;
+		int runs = editor.setup.simulationRuns().orElse(1);
+		int cores = Runtime.getRuntime().availableProcessors() - 1;
+
+		// every worker needs its own copy of the matrices; we roughly
+		// estimate the memory of a worker by a dense technology matrix
+		var result = editor.simulator.getResult();
+		long n = result != null ? result.techIndex().size() : 0;
+		long bytes = Math.max(1, 16 * n * n);
+		var rt = Runtime.getRuntime();
+		long free = rt.maxMemory() - (rt.totalMemory() - rt.freeMemory());
+		long byMemory = free / (2 * bytes);
+
+		return (int) Math.max(1, Math.min(Math.min(runs, cores), byMemory));
+	}
+
+	/**
+	 * Returns the number of finished iterations.
+	 */
+	int finished() {
+		return finished.get();
+	}
+
+	/**
+	 * Returns the store with the values of the iterations or null if the
+	 * simulation was not started yet.
+	 */
+	SimulationStore store() {
+		return store;
+	}
+
+	/**
+	 * Runs the given number of iterations and blocks until they are finished
+	 * or until the simulation is canceled. The upstream results of the given
+	 * pinned products are stored in addition to the total results. The given
+	 * callback is called from the worker threads after each iteration with the
+	 * number of iterations that are finished so far.
+	 */
+	void run(int runs, Set<TechFlow> pins, BooleanSupplier canceled,
+			IntConsumer onRun)
+			throws IOException, InterruptedException, ExecutionException {
+		if (store == null) {
+			store = SimulationStore.create(runs, flows, impacts);
+		}
+		int n = threads;
+		var abort = new AtomicBoolean();
+		if (n == 1) {
+			new Worker(0, 1, runs, pins, canceled, abort, onRun).call();
+			return;
+		}
+
+		log.info("run {} simulations with {} workers", runs, n);
+		var exec = Executors.newFixedThreadPool(n, r -> {
+			var thread = new Thread(r, "simulation worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			var futures = new ArrayList<Future<Void>>(n);
+			for (int w = 0; w < n; w++) {
+				futures.add(exec.submit(
+						new Worker(w, n, runs, pins, canceled, abort, onRun)));
+			}
+			for (var future : futures) {
+				future.get();
+			}
+		} finally {
+			// stop the other workers when one failed; they finish their
+			// current iteration but do not write it into the store
+			abort.set(true);
+			exec.shutdownNow();
+			exec.awaitTermination(1, TimeUnit.MINUTES);
+		}
+	}
+
+	/**
+	 * Returns the values of the given flow in the order of the iterations. If
+	 * a pinned product is given, its upstream results are returned.
+	 */
+	double[] getAll(EnviFlow flow, TechFlow pin) {
+		var s = store;
+		return s != null
+				? s.values(pin, flow)
+				: new double[0];
+	}
+
+	double[] getAll(ImpactDescriptor impact, TechFlow pin) {
+		var s = store;
+		return s != null
+				? s.values(pin, impact)
+				: new double[0];
+	}
+
+	/**
+	 * Deletes the stored values. This should be called when the editor is
+	 * closed.
+	 */
+	void close() {
+		var s = store;
+		store = null;
+		if (s != null) {
+			s.close();
+		}
+	}
+
+	/**
+	 * The first simulator is the simulator of the editor; all other
+	 * simulators are created with the same setup.
+	 */
+	private Simulator nextSimulator(Set<TechFlow> pins) {
+		if (mainUsed.compareAndSet(false, true))
+			return editor.simulator;
+		var sim = Simulator.create(editor.setup, Database.get())
+				.withSolver(App.getSolver());
+		sim.pinnedProducts.addAll(pins);
+		return sim;
+	}
+
+	private class Worker implements Callable<Void> {
+
+		private final int first;
+		private final int step;
+		private final int runs;
+		private final Set<TechFlow> pins;
+		private final BooleanSupplier canceled;
+		private final AtomicBoolean abort;
+		private final IntConsumer onRun;
+
+		Worker(int first, int step, int runs, Set<TechFlow> pins,
+				BooleanSupplier canceled, AtomicBoolean abort, IntConsumer onRun) {
+			this.first = first;
+			this.step = step;
+			this.runs = runs;
+			this.pins = pins;
+			this.canceled = canceled;
+			this.abort = abort;
+			this.onRun = onRun;
+		}
+
+		@Override
+		public Void call() throws IOException {
+			try {
+				runAll();
+				return null;
+			} catch (IOException | RuntimeException e) {
+				abort.set(true);
+				throw e;
+			}
+		}
+
+		private void runAll() throws IOException {
+			Simulator sim = null;
+			int executed = 0;
+			int appended = 0;
+			for (int run = first; run < runs; run += step) {
+				if (isStopped())
+					return;
+				if (sim == null || executed == RUNS_PER_SIMULATOR) {
+					sim = nextSimulator(pins);
+					executed = 0;
+					appended = iterationsOf(sim.getResult());
+				}
+				sim.nextRun();
+				executed++;
+				if (isStopped())
+					return;
+				if (store(sim.getResult(), run, appended + 1)) {
+					appended++;
+				}
+				onRun.accept(finished.incrementAndGet());
+			}
+		}
+
+		private boolean isStopped() {
+			return canceled.getAsBoolean()
+					|| abort.get()
+					|| Thread.currentThread().isInterrupted();
+		}
+
+		/**
+		 * Returns the number of iterations that are already contained in the
+		 * given result, e.g. when the simulator of the editor was already
+		 * used in a previous simulation.
+		 */
+		private int iterationsOf(SimulationResult result) {
+			if (result == null)
+				return 0;
+			double[] values = null;
+			if (!flows.isEmpty()) {
+				values = result.getAll(flows.get(0));
+			} else if (!impacts.isEmpty()) {
+				values = result.getAll(impacts.get(0));
+			}
+			return values != null ? values.length : 0;
+		}
+
+		/**
+		 * Moves the values of the last iteration of the given result into the
+		 * store. Returns false if the result does not contain a new iteration,
+		 * e.g. when the matrices of that iteration were singular. The result
+		 * only provides complete value series, but as the simulators are
+		 * replaced regularly, these series have at most
+		 * {@link #RUNS_PER_SIMULATOR} new values.
+		 */
+		private boolean store(SimulationResult result, int run, int expected)
+				throws IOException {
+			var s = store;
+			if (s == null || result == null)
+				return false;
+			var totals = lastValues(result, null, expected);
+			if (totals == null)
+				return false;
+			s.put(null, run, totals);
+			for (var pin : pins) {
+				var upstream = lastValues(result, pin, expected);
+				if (upstream != null) {
+					s.put(pin, run, upstream);
+				}
+			}
+			return true;
+		}
+
+		private double[] lastValues(
+				SimulationResult result, TechFlow pin, int expected) {
+			var row = new double[flows.size() + impacts.size()];
+			int col = 0;
+			for (var flow : flows) {
+				var values = pin == null
+						? result.getAll(flow)
+						: result.getAllUpstream(pin, flow);
+				if (values == null || values.length != expected)
+					return null;
+				row[col++] = values[expected - 1];
+			}
+			for (var impact : impacts) {
+				var values = pin == null
+						? result.getAll(impact)
+						: result.getAllUpstream(pin, impact);
+				if (values == null || values.length != expected)
+					return null;
+				row[col++] = values[expected - 1];
+			}
+			return row;
+		}
+	}
+}
@@ -1,46 +1,73 @@
 package org.openlca.app.results.simulation;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.swt.widgets.Display;
 import org.openlca.app.M;
-import org.openlca.core.math.Simulator;
+import org.openlca.core.matrix.index.TechFlow;
 
 /**
  * The progress that runs the simulations. This should not be executed in the
- * UI-thread.
+ * UI-thread. The values of the current selection are collected in the worker
+ * threads and the UI is updated at most every {@link #UPDATE_INTERVAL}
+ * milliseconds.
  */
 class SimulationProgress implements IRunnableWithProgress {
 
+	private static final long UPDATE_INTERVAL = 250;
+
 	private final Display display;
 	private final int numberOfRuns;
-	private final Simulator solver;
+	private final SimulationPool pool;
 	private final SimulationPage page;
+	private final Set<TechFlow> pins;
+	private final AtomicLong lastUpdate = new AtomicLong();
 
 	public SimulationProgress(Display display, SimulationEditor editor,
 			SimulationPage page) {
 		this.display = display;
-		this.solver = editor.simulator;
+		this.pool = editor.pool;
 		this.numberOfRuns = editor.setup.simulationRuns().orElse(1);
 		this.page = page;
+		this.pins = Set.copyOf(editor.simulator.pinnedProducts);
 	}
 
 	@Override
 	public void run(IProgressMonitor monitor) throws InvocationTargetException,
 			InterruptedException {
 		monitor.beginTask(M.MonteCarloSimulation + "...", numberOfRuns);
-		for (int i = 0; i < numberOfRuns; i++) {
-			if (monitor.isCanceled()) {
-				display.asyncExec(page::progressDone);
-				break;
-			}
-			solver.nextRun();
-			display.asyncExec(page::updateProgress);
-			Thread.sleep(10);
+		try {
+			pool.run(numberOfRuns, pins, monitor::isCanceled, this::onRun);
+			update(pool.finished());
+		} catch (ExecutionException e) {
+			throw new InvocationTargetException(e.getCause());
+		} catch (IOException e) {
+			throw new InvocationTargetException(e);
+		} finally {
+			monitor.done();
+			display.asyncExec(page::progressDone);
 		}
-		monitor.done();
-		display.asyncExec(page::progressDone);
+	}
+
+	private void onRun(int finished) {
+		long now = System.currentTimeMillis();
+		long last = lastUpdate.get();
+		if (now - last < UPDATE_INTERVAL)
+			return;
+		// only one worker should collect the values
+		if (!lastUpdate.compareAndSet(last, now))
+			return;
+		update(finished);
+	}
+
+	private void update(int finished) {
+		var values = page.values();
+		display.asyncExec(() -> page.updateProgress(finished, values));
 	}
 }
@@ -0,0 +1,285 @@
+package org.openlca.app.results.simulation;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openlca.core.matrix.index.EnviFlow;
+import org.openlca.core.matrix.index.TechFlow;
+import org.openlca.core.model.descriptors.ImpactDescriptor;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the values of the iterations of a Monte Carlo simulation in
+ * memory-mapped files outside of the Java heap. The values are stored column
+ * by column: a column contains the values of a result item (an inventory flow
+ * or impact category) for all iterations, so that the values of an item can
+ * be read in one block. There is one block of columns for the total results
+ * and one for each pinned product. In addition, the mean, standard deviation,
+ * and range of each column are updated with every iteration.
+ * <p>
+ * The rows of a block are the iteration numbers. Iterations can be added in
+ * any order (e.g. by parallel workers) but are always read in the order of
+ * their numbers. Iterations that failed (or that were not executed for a
+ * pinned product) are skipped when reading a column.
+ */
+class SimulationStore {
+
+	/** The maximum size of a single memory-mapped region. */
+	private static final long MAX_REGION = 1L << 30;
+
+	private final Path dir;
+	private final int runs;
+	private final List<EnviFlow> flows;
+	private final List<ImpactDescriptor> impacts;
+	private final Map<EnviFlow, Integer> flowColumns = new HashMap<>();
+	private final Map<ImpactDescriptor, Integer> impactColumns = new HashMap<>();
+	private final Block totals;
+	private final Map<TechFlow, Block> pins = new LinkedHashMap<>();
+
+	private SimulationStore(Path dir, int runs,
+			List<EnviFlow> flows, List<ImpactDescriptor> impacts)
+			throws IOException {
+		this.dir = dir;
+		this.runs = runs;
+		this.flows = flows;
+		this.impacts = impacts;
+		int col = 0;
+		for (var flow : flows) {
+			flowColumns.put(flow, col++);
+		}
+		for (var impact : impacts) {
+			impactColumns.put(impact, col++);
+		}
+		this.totals = new Block(dir.resolve("totals.bin"));
+	}
+
+	static SimulationStore create(int runs,
+			List<EnviFlow> flows, List<ImpactDescriptor> impacts)
+			throws IOException {
+		var dir = Files.createTempDirectory("olca-simulation");
+		return new SimulationStore(dir, Math.max(runs, 1), flows, impacts);
+	}
+
+	List<EnviFlow> flows() {
+		return flows;
+	}
+
+	List<ImpactDescriptor> impacts() {
+		return impacts;
+	}
+
+	int columns() {
+		return flows.size() + impacts.size();
+	}
+
+	/**
+	 * Returns the pinned products for which values were stored.
+	 */
+	synchronized List<TechFlow> pins() {
+		return new ArrayList<>(pins.keySet());
+	}
+
+	/**
+	 * Stores the values of the given iteration. The values of the row are
+	 * the flow results followed by the impact results in the order of the
+	 * lists of this store. If the given pin is null, the values are stored as
+	 * total results, otherwise as upstream results of the pinned product.
+	 */
+	void put(TechFlow pin, int run, double[] row) throws IOException {
+		if (run < 0 || run >= runs || row == null || row.length != columns())
+			return;
+		block(pin, true).put(run, row);
+	}
+
+	double[] values(TechFlow pin, EnviFlow flow) {
+		var col = flowColumns.get(flow);
+		return values(pin, col);
+	}
+
+	double[] values(TechFlow pin, ImpactDescriptor impact) {
+		var col = impactColumns.get(impact);
+		return values(pin, col);
+	}
+
+	/**
+	 * Returns the values of the given column in the order of the iterations.
+	 */
+	private double[] values(TechFlow pin, Integer col) {
+		if (col == null)
+			return new double[0];
+		try {
+			var block = block(pin, false);
+			return block != null
+					? block.column(col)
+					: new double[0];
+		} catch (IOException e) {
+			LoggerFactory.getLogger(getClass())
+					.error("failed to read simulation values", e);
+			return new double[0];
+		}
+	}
+
+	Stats stats(TechFlow pin, int col) {
+		try {
+			var block = block(pin, false);
+			return block != null
+					? block.stats(col)
+					: new Stats(0, 0, 0, 0, 0);
+		} catch (IOException e) {
+			return new Stats(0, 0, 0, 0, 0);
+		}
+	}
+
+	private synchronized Block block(TechFlow pin, boolean create)
+			throws IOException {
+		if (pin == null)
+			return totals;
+		var block = pins.get(pin);
+		if (block != null || !create)
+			return block;
+		block = new Block(dir.resolve("pin_" + pins.size() + ".bin"));
+		pins.put(pin, block);
+		return block;
+	}
+
+	/**
+	 * Deletes the files of the store. On some platforms, the files can only be
+	 * deleted when the mapped buffers were collected; they are then deleted
+	 * when the application exits.
+	 */
+	void close() {
+		synchronized (this) {
+			totals.close();
+			for (var block : pins.values()) {
+				block.close();
+			}
+		}
+		try (var files = Files.list(dir)) {
+			for (var file : files.toList()) {
+				if (!Files.deleteIfExists(file)) {
+					file.toFile().deleteOnExit();
+				}
+			}
+			Files.deleteIfExists(dir);
+		} catch (IOException e) {
+			dir.toFile().deleteOnExit();
+		}
+	}
+
+	/**
+	 * Online statistics of a column: the number of values, their mean,
+	 * standard deviation, minimum, and maximum.
+	 */
+	record Stats(int count, double mean, double sd, double min, double max) {
+	}
+
+	private class Block {
+
+		private final int columnsPerRegion;
+		private final MappedByteBuffer[] regions;
+		private final BitSet done = new BitSet();
+
+		private final int[] counts;
+		private final double[] means;
+		private final double[] m2s;
+		private final double[] mins;
+		private final double[] maxs;
+		private boolean closed;
+
+		Block(Path file) throws IOException {
+			int columns = columns();
+			long columnBytes = 8L * runs;
+			columnsPerRegion = (int) Math.max(1, MAX_REGION / columnBytes);
+			int regionCount = columns == 0
+					? 0
+					: (columns + columnsPerRegion - 1) / columnsPerRegion;
+			regions = new MappedByteBuffer[regionCount];
+			try (var channel = FileChannel.open(file,
+					StandardOpenOption.CREATE,
+					StandardOpenOption.READ,
+					StandardOpenOption.WRITE)) {
+				for (int i = 0; i < regionCount; i++) {
+					int n = Math.min(columnsPerRegion, columns - i * columnsPerRegion);
+					long pos = (long) i * columnsPerRegion * columnBytes;
+					regions[i] = channel.map(
+							FileChannel.MapMode.READ_WRITE, pos, n * columnBytes);
+				}
+			}
+			counts = new int[columns];
+			means = new double[columns];
+			m2s = new double[columns];
+			mins = new double[columns];
+			maxs = new double[columns];
+		}
+
+		synchronized void put(int run, double[] row) {
+			if (closed)
+				return;
+			for (int col = 0; col < row.length; col++) {
+				double val = row[col];
+				region(col).putDouble(offset(col, run), val);
+
+				// Welford's online algorithm for mean and variance
+				int n = ++counts[col];
+				double delta = val - means[col];
+				means[col] += delta / n;
+				m2s[col] += delta * (val - means[col]);
+				if (n == 1) {
+					mins[col] = val;
+					maxs[col] = val;
+				} else {
+					mins[col] = Math.min(mins[col], val);
+					maxs[col] = Math.max(maxs[col], val);
+				}
+			}
+			done.set(run);
+		}
+
+		synchronized double[] column(int col) {
+			if (closed || col < 0 || col >= counts.length)
+				return new double[0];
+			var values = new double[done.cardinality()];
+			var region = region(col);
+			int i = 0;
+			for (int run = done.nextSetBit(0); run >= 0;
+					run = done.nextSetBit(run + 1)) {
+				values[i++] = region.getDouble(offset(col, run));
+			}
+			return values;
+		}
+
+		synchronized Stats stats(int col) {
+			if (col < 0 || col >= counts.length)
+				return new Stats(0, 0, 0, 0, 0);
+			int n = counts[col];
+			double sd = n > 1 ? Math.sqrt(m2s[col] / (n - 1)) : 0;
+			return new Stats(n, means[col], sd, mins[col], maxs[col]);
+		}
+
+		private MappedByteBuffer region(int col) {
+			return regions[col / columnsPerRegion];
+		}
+
+		private int offset(int col, int run) {
+			return ((col % columnsPerRegion) * runs + run) * 8;
+		}
+
+		synchronized void close() {
+			closed = true;
+			done.clear();
+			for (int i = 0; i < regions.length; i++) {
+				regions[i] = null;
+			}
+		}
+	}
+}
@@ -35,12 +35,14 @@ import org.openlca.util.Strings;
 
 class ResultPage extends FormPage {
 
-	private final int PAGE_SIZE = 50;
+	private final int PAGE_SIZE = Search.PAGE_SIZE;
 	private final List<Descriptor> rawResults;
 	private final String title;
+	private final Search search;
 	private final Categories.PathBuilder categories;
 
 	private List<Descriptor> results;
+	private String filter;
 	private int currentPage = 0;
 	private int pageCount;
 
@@ -54,19 +56,65 @@ class ResultPage extends FormPage {
 		this.rawResults = results;
 		this.results = rawResults;
 		this.title = title;
+		this.search = null;
 		pageCount = (int) Math.ceil((double) results.size() / (double) PAGE_SIZE);
 		categories = Categories.pathsOf(Database.get());
 	}
 
+	/**
+	 * Creates a result page that is filled with the results of the given
+	 * search while it is running.
+	 */
+	ResultPage(SearchPage view, String title, Search search) {
+		super(view, "SearchResultView.Page", M.SearchResults);
+		this.rawResults = new ArrayList<>();
+		this.results = rawResults;
+		this.title = title;
+		this.search = search;
+		categories = Categories.pathsOf(Database.get());
+	}
+
 	@Override
 	protected void createFormContent(IManagedForm form) {
 		this.form = UI.header(form, title);
 		tk = form.getToolkit();
 		formBody = UI.body(this.form, tk);
-		if (rawResults.size() > 10) {
+		if (search != null || rawResults.size() > 10) {
 			createFilter();
 		}
 		renderPage();
+		if (search != null) {
+			updateTitle();
+			var display = form.getForm().getDisplay();
+			search.onResults(page -> display.asyncExec(() -> append(page)));
+		}
+	}
+
+	private void append(List<Descriptor> page) {
+		if (form == null || form.isDisposed())
+			return;
+		rawResults.addAll(page);
+		updateTitle();
+		var added = page;
+		if (Strings.notEmpty(filter)) {
+			// the new matches are added after the current filtered results so
+			// that the current page and position are kept
+			added = filterOf(page, filter);
+			results.addAll(added);
+		}
+		if (added.isEmpty())
+			return;
+		int oldPageCount = pageCount;
+		pageCount = (int) Math.ceil((double) results.size() / (double) PAGE_SIZE);
+		boolean pageIncomplete = (currentPage + 1) * PAGE_SIZE
+				> results.size() - added.size();
+		if (pageIncomplete || oldPageCount != pageCount) {
+			renderPage();
+		}
+	}
+
+	private void updateTitle() {
+		form.setText(title + " (" + rawResults.size() + " " + M.Results + ")");
 	}
 
 	private void createFilter() {
@@ -80,35 +128,39 @@ class ResultPage extends FormPage {
 	}
 
 	private void filterResults(String filter) {
-		if (Strings.nullOrEmpty(filter)) {
-			results = rawResults;
-		} else {
-			String term = filter.trim().toLowerCase();
-			results = new ArrayList<>();
-			HashMap<Long, Integer> distances = new HashMap<>();
-			for (var d : rawResults) {
-				String n = Labels.name(d);
-				if (n == null)
-					continue;
-				int dist = n.toLowerCase().indexOf(term);
-				if (dist < 0)
-					continue;
-				results.add(d);
-				distances.put(d.id, dist);
-			}
-			results.sort((d1, d2) -> {
-				Integer dist1 = distances.get(d1.id);
-				Integer dist2 = distances.get(d2.id);
-				if (dist1 == null || dist2 == null)
-					return 0;
-				return dist1 - dist2;
-			});
-		}
+		this.filter = filter;
+		results = Strings.nullOrEmpty(filter)
+				? rawResults
+				: filterOf(rawResults, filter);
 		currentPage = 0;
 		pageCount = (int) Math.ceil((double) results.size() / (double) PAGE_SIZE);
 		renderPage();
 	}
 
+	private List<Descriptor> filterOf(List<Descriptor> list, String filter) {
+		String term = filter.trim().toLowerCase();
+		var filtered = new ArrayList<Descriptor>();
+		HashMap<Long, Integer> distances = new HashMap<>();
+		for (var d : list) {
+			String n = Labels.name(d);
+			if (n == null)
+				continue;
+			int dist = n.toLowerCase().indexOf(term);
+			if (dist < 0)
+				continue;
+			filtered.add(d);
+			distances.put(d.id, dist);
+		}
+		filtered.sort((d1, d2) -> {
+			Integer dist1 = distances.get(d1.id);
+			Integer dist2 = distances.get(d2.id);
+			if (dist1 == null || dist2 == null)
+				return 0;
+			return dist1 - dist2;
+		});
+		return filtered;
+	}
+
 	private void renderPage() {
 		if (pageComposite != null) {
 			pageComposite.dispose();
@@ -142,10 +194,10 @@ class ResultPage extends FormPage {
 	private List<Descriptor> getPageResults() {
 		if (results == null || results.isEmpty())
 			return Collections.emptyList();
-		int start = currentPage * 50;
+		int start = currentPage * PAGE_SIZE;
 		if (start >= results.size())
 			return Collections.emptyList();
-		int end = start + 50;
+		int end = start + PAGE_SIZE;
 		if (end > results.size()) {
 			end = results.size();
 		}
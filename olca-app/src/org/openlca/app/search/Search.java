@@ -1,23 +1,31 @@
 package org.openlca.app.search;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 import org.openlca.app.navigation.ModelTypeOrder;
-import org.openlca.app.util.Labels;
-import org.openlca.core.database.Daos;
 import org.openlca.core.database.IDatabase;
-import org.openlca.core.database.ParameterDao;
 import org.openlca.core.model.ModelType;
 import org.openlca.core.model.descriptors.Descriptor;
 import org.openlca.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Runs a full-text search against the search index of a database. The
+ * results are pushed to registered listeners in pages per model type as
+ * they are found, so that a result view can show the first hits before the
+ * search is finished. A search can be canceled at any time; it then stops
+ * at the next page boundary.
+ */
 class Search implements Runnable {
 
+	/** The maximum number of results that are pushed to listeners at once. */
+	static final int PAGE_SIZE = 50;
+
 	private final Logger log = LoggerFactory.getLogger(getClass());
 	private final IDatabase db;
 
@@ -26,6 +34,8 @@ class Search implements Runnable {
 	private final List<String> words = new ArrayList<>();
 	private final List<String> tags = new ArrayList<>();
 	private final List<Descriptor> result = new ArrayList<>();
+	private final List<Consumer<List<Descriptor>>> listeners = new ArrayList<>();
+	private volatile boolean canceled;
 
 	Search(IDatabase db, String term) {
 		this.db = db;
@@ -50,73 +60,117 @@ class Search implements Runnable {
 	}
 
 	public List<Descriptor> getResult() {
-		return result;
+		synchronized (result) {
+			return new ArrayList<>(result);
+		}
+	}
+
+	/**
+	 * Registers a listener that receives the pages of results. The results
+	 * that were already found when the listener is registered are passed to
+	 * it directly. Note that listeners are called in the thread of the
+	 * search and not in the UI thread.
+	 */
+	void onResults(Consumer<List<Descriptor>> listener) {
+		if (listener == null)
+			return;
+		synchronized (result) {
+			listeners.add(listener);
+			if (!result.isEmpty()) {
+				listener.accept(new ArrayList<>(result));
+			}
+		}
+	}
+
+	/**
+	 * Cancels the search. Results that were already pushed to listeners stay
+	 * valid but no further results are pushed.
+	 */
+	void cancel() {
+		canceled = true;
+	}
+
+	boolean isCanceled() {
+		return canceled;
 	}
 
 	@Override
 	public void run() {
-		result.clear();
-		if (rawTerm.isEmpty())
+		synchronized (result) {
+			result.clear();
+		}
+		if (rawTerm.isEmpty() || canceled)
 			return;
 
 		log.trace("run search with term {}", rawTerm);
-		var types = typeFilter == null
-				? ModelTypeOrder.getOrderedTypes()
-				: new ModelType[]{typeFilter};
-		var matches = new ArrayList<Match>();
-		for (var type : types) {
-			var all = type == ModelType.PARAMETER
-					? new ParameterDao(db).getGlobalDescriptors()
-					: Daos.root(db, type).getDescriptors();
-			for (var d : all) {
-				var match = Match.of(d, this);
-				if (!match.isEmpty()) {
-					matches.add(match);
-				}
+		var index = SearchIndex.of(db);
+		var byType = new EnumMap<ModelType, List<Match>>(ModelType.class);
+		for (var entry : index.candidates(words, tags, typeFilter)) {
+			var match = Match.of(entry, this);
+			if (!match.isEmpty()) {
+				byType.computeIfAbsent(entry.key().type(), t -> new ArrayList<>())
+						.add(match);
 			}
 		}
 
-		matches.stream()
-				.sorted((m1, m2) -> {
-					int c = Double.compare(m2.factor, m1.factor);
-					return c == 0
-							? Strings.compare(
-							Labels.name(m1.descriptor),
-							Labels.name(m2.descriptor))
-							: c;
-				})
-				.map(Match::descriptor)
-				.forEach(result::add);
+		// push the ranked results per model type in pages
+		for (var type : ModelTypeOrder.getOrderedTypes()) {
+			var matches = byType.get(type);
+			if (matches == null)
+				continue;
+			var ranked = matches.stream()
+					.sorted((m1, m2) -> {
+						int c = Double.compare(m2.factor, m1.factor);
+						return c == 0
+								? Strings.compare(m1.entry.name(), m2.entry.name())
+								: c;
+					})
+					.map(Match::entry)
+					.toList();
+			for (int start = 0; start < ranked.size(); start += PAGE_SIZE) {
+				if (canceled) {
+					log.trace("search with term {} canceled", rawTerm);
+					return;
+				}
+				int end = Math.min(start + PAGE_SIZE, ranked.size());
+				push(index.load(ranked.subList(start, end)));
+			}
+		}
 
 		log.trace("{} results found", result.size());
 	}
 
-	private record Match(Descriptor descriptor, double factor) {
+	private void push(List<Descriptor> page) {
+		if (page.isEmpty())
+			return;
+		synchronized (result) {
+			result.addAll(page);
+			for (var listener : listeners) {
+				listener.accept(page);
+			}
+		}
+	}
+
+	private record Match(SearchIndex.Entry entry, double factor) {
 
 		private static final Match _empty = new Match(null, 0);
 
 		boolean isEmpty() {
-			return descriptor == null;
+			return entry == null;
 		}
 
-		static Match of(Descriptor d, Search s) {
-			if (d == null)
+		static Match of(SearchIndex.Entry e, Search s) {
+			if (e == null)
 				return _empty;
 
 			if (s.words.size() == 1
-					&& d.refId != null
-					&& d.refId.equalsIgnoreCase(s.words.get(0)))
-				return new Match(d, 1e7);
+					&& e.refId() != null
+					&& e.refId().equalsIgnoreCase(s.words.get(0)))
+				return new Match(e, 1e7);
 
 			// filter by tags
 			if (!s.tags.isEmpty()) {
-				if (Strings.nullOrEmpty(d.tags))
-					return _empty;
-
-				var tags = Arrays.stream(d.tags.split(","))
-						.map(tag -> tag.strip().toLowerCase())
-						.filter(Strings::notEmpty)
-						.collect(Collectors.toSet());
+				var tags = new HashSet<>(SearchIndex.tagsOf(e.tags()));
 				for (var tag : s.tags) {
 					if (!tags.contains(tag))
 						return _empty;
@@ -125,12 +179,14 @@ class Search implements Runnable {
 
 			double factor = 0;
 			for (var word : s.words) {
-				factor += wordMatch(Labels.name(d), word);
-				factor += wordMatch(d.tags, word);
+				factor += wordMatch(e.name(), word);
+				factor += wordMatch(e.tags(), word);
+				// matches in the category path have a lower weight
+				factor += 0.25 * wordMatch(e.path(), word);
 			}
 
 			return !s.tags.isEmpty() || factor > 0
-					? new Match(d, factor)
+					? new Match(e, factor)
 					: _empty;
 		}
 
@@ -0,0 +1,566 @@
+package org.openlca.app.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openlca.app.db.Database;
+import org.openlca.app.db.DatabaseDir;
+import org.openlca.app.navigation.ModelTypeOrder;
+import org.openlca.app.util.Labels;
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.ParameterDao;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.Descriptor;
+import org.openlca.core.model.descriptors.RootDescriptor;
+import org.openlca.util.Categories;
+import org.openlca.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A persistent, per-database inverted index for the full-text search. It maps
+ * the tokens of names, tags, and category paths as well as the reference IDs
+ * of the models to their index entries so that a search does not need to scan
+ * all descriptors of the database. The index is stored in the file storage
+ * location of the database and is updated incrementally from the eviction and
+ * registration notifications of the application cache (see
+ * {@link org.openlca.app.db.Cache}). When all caches are evicted (e.g. after
+ * an import), the index is marked as stale and rebuilt with the next search.
+ * A stored index that could not be updated (because it was stale or not
+ * loaded when the database was changed) is deleted, so that only an
+ * up-to-date index is loaded from disk. The stored index is also deleted when
+ * the index in memory gets its first change, so that an outdated index is not
+ * loaded after a crash; it is written again when the index is closed.
+ */
+public final class SearchIndex {
+
+	private static final int VERSION = 1;
+	private static final String FILE = "search.index";
+	private static final Logger log = LoggerFactory.getLogger(SearchIndex.class);
+
+	private static SearchIndex instance;
+
+	private final IDatabase db;
+	private final Map<Key, Entry> entries = new HashMap<>();
+	private final Map<String, Set<Key>> tokens = new HashMap<>();
+	private final Map<String, Set<Key>> tags = new HashMap<>();
+	private final Map<String, Key> refIds = new HashMap<>();
+
+	/** True when the index has changes that are not yet written. */
+	private boolean dirty;
+
+	/** True when the index needs to be rebuilt from the database. */
+	private boolean stale;
+
+	private SearchIndex(IDatabase db) {
+		this.db = db;
+	}
+
+	/**
+	 * Returns the index of the given database. If there is no index in memory
+	 * yet, it is loaded from disk or, if this is not possible, built from the
+	 * database.
+	 */
+	static synchronized SearchIndex of(IDatabase db) {
+		Objects.requireNonNull(db);
+		if (instance != null && instance.db == db) {
+			if (instance.stale) {
+				instance.rebuild();
+			}
+			return instance;
+		}
+		if (instance != null) {
+			instance.write();
+		}
+		var index = new SearchIndex(db);
+		if (!index.read()) {
+			index.rebuild();
+		}
+		instance = index;
+		return index;
+	}
+
+	/**
+	 * Updates the entry of the given descriptor in the index if it is loaded.
+	 * This reloads the descriptor from the database; if it does not exist
+	 * anymore, it is removed from the index.
+	 */
+	public static synchronized void evict(Descriptor d) {
+		if (d == null)
+			return;
+		if (instance == null || d.type == null) {
+			evictAll();
+			return;
+		}
+		try {
+			instance.update(d.type, d.id);
+		} catch (Exception e) {
+			log.error("failed to update search index for " + d, e);
+			instance.markStale();
+		}
+	}
+
+	/**
+	 * Marks the index as stale so that it is rebuilt with the next search. If
+	 * no index is loaded, the stored index of the active database is deleted,
+	 * as it could not be updated with the changes of the database.
+	 */
+	public static synchronized void evictAll() {
+		if (instance != null) {
+			instance.markStale();
+			return;
+		}
+		var db = Database.get();
+		if (db != null) {
+			deleteFile(db);
+		}
+	}
+
+	/**
+	 * Writes the index to disk (if it has changes) and removes it from memory.
+	 */
+	public static synchronized void close() {
+		if (instance == null)
+			return;
+		instance.write();
+		instance = null;
+	}
+
+	/**
+	 * Returns the models of the given database which names contain the given
+	 * text (ignoring the case) together with the categories on the paths to
+	 * these models. The names are the same as in the navigation tree.
+	 */
+	public static NameMatches matchNames(IDatabase db, String text) {
+		var index = of(db);
+		var term = text == null ? "" : text.strip().toLowerCase();
+		synchronized (SearchIndex.class) {
+			var models = new HashSet<Key>();
+			var categories = new HashSet<Long>();
+			var types = EnumSet.noneOf(ModelType.class);
+			for (var e : index.entries.values()) {
+				if (e.name == null || !e.name.toLowerCase().contains(term))
+					continue;
+				models.add(e.key);
+				types.add(e.key.type);
+				// collect the category path of the model
+				var category = e.category;
+				while (category != null && categories.add(category)) {
+					var c = index.entries.get(
+							new Key(ModelType.CATEGORY, category));
+					category = c != null ? c.category : null;
+				}
+			}
+			return new NameMatches(models, categories, types);
+		}
+	}
+
+	/**
+	 * Returns the entries that could match the given search. For every word
+	 * of the search, the candidates are the entries that contain tokens which
+	 * contain the tokens of that word. The final ranking is done in the
+	 * search itself.
+	 */
+	List<Entry> candidates(
+			List<String> words, List<String> tagFilter, ModelType typeFilter) {
+		synchronized (SearchIndex.class) {
+			Set<Key> keys = null;
+			if (!tagFilter.isEmpty()) {
+				for (var tag : tagFilter) {
+					var tagged = tags.get(tag);
+					if (tagged == null)
+						return List.of();
+					if (keys == null) {
+						keys = new HashSet<>(tagged);
+					} else {
+						keys.retainAll(tagged);
+					}
+				}
+			}
+
+			if (!words.isEmpty()) {
+				var matched = new HashSet<Key>();
+				for (var word : words) {
+					var ref = refIds.get(word);
+					if (ref != null) {
+						matched.add(ref);
+					}
+					matched.addAll(candidatesOf(word));
+				}
+				if (keys == null) {
+					keys = matched;
+				} else {
+					keys.retainAll(matched);
+				}
+			}
+
+			if (keys == null)
+				return List.of();
+			var list = new ArrayList<Entry>(keys.size());
+			for (var key : keys) {
+				if (typeFilter != null && key.type != typeFilter)
+					continue;
+				var entry = entries.get(key);
+				if (entry != null) {
+					list.add(entry);
+				}
+			}
+			return list;
+		}
+	}
+
+	private Collection<Key> candidatesOf(String word) {
+		var parts = tokenize(word);
+		if (parts.isEmpty())
+			return entries.keySet();
+		Set<Key> keys = null;
+		for (var part : parts) {
+			var matched = new HashSet<Key>();
+			for (var e : tokens.entrySet()) {
+				if (e.getKey().contains(part)) {
+					matched.addAll(e.getValue());
+				}
+			}
+			if (keys == null) {
+				keys = matched;
+			} else {
+				keys.retainAll(matched);
+			}
+			if (keys.isEmpty())
+				break;
+		}
+		return keys;
+	}
+
+	/**
+	 * Loads the descriptors of the given entries from the database. The order
+	 * of the entries is preserved in the returned list.
+	 */
+	List<Descriptor> load(List<Entry> list) {
+		var ids = new EnumMap<ModelType, Set<Long>>(ModelType.class);
+		for (var e : list) {
+			ids.computeIfAbsent(e.key.type, t -> new HashSet<>())
+					.add(e.key.id);
+		}
+		var descriptors = new HashMap<Key, Descriptor>();
+		for (var e : ids.entrySet()) {
+			var type = e.getKey();
+			for (var d : Daos.root(db, type).getDescriptors(e.getValue())) {
+				descriptors.put(new Key(type, d.id), d);
+			}
+		}
+		var result = new ArrayList<Descriptor>(list.size());
+		for (var e : list) {
+			var d = descriptors.get(e.key);
+			if (d != null) {
+				result.add(d);
+			}
+		}
+		return result;
+	}
+
+	private void rebuild() {
+		log.trace("build search index for database {}", db.getName());
+		clear();
+		var paths = Categories.pathsOf(db);
+		for (var type : ModelTypeOrder.getOrderedTypes()) {
+			var all = type == ModelType.PARAMETER
+					? new ParameterDao(db).getGlobalDescriptors()
+					: Daos.root(db, type).getDescriptors();
+			for (var d : all) {
+				put(entryOf(type, d, paths));
+			}
+		}
+		stale = false;
+		dirty = true;
+		log.trace("indexed {} models", entries.size());
+		write();
+	}
+
+	private void update(ModelType type, long id) {
+		if (stale)
+			return;
+		var key = new Key(type, id);
+		remove(key);
+		markDirty();
+
+		// for parameters, only the global ones are indexed
+		if (type == ModelType.PARAMETER) {
+			for (var p : new ParameterDao(db).getGlobalDescriptors()) {
+				if (p.id == id) {
+					put(entryOf(type, p, Categories.pathsOf(db)));
+					break;
+				}
+			}
+			return;
+		}
+
+		var d = Daos.root(db, type).getDescriptor(id);
+		var paths = Categories.pathsOf(db);
+		if (d != null) {
+			put(entryOf(type, d, paths));
+		}
+
+		// a renamed or moved category changes the paths of its content
+		if (type == ModelType.CATEGORY) {
+			for (var entry : new ArrayList<>(entries.values())) {
+				if (entry.category == null)
+					continue;
+				var path = paths.pathOf(entry.category);
+				if (Objects.equals(path, entry.path))
+					continue;
+				remove(entry.key);
+				put(new Entry(entry.key, entry.name, entry.refId,
+						entry.tags, entry.category, path));
+			}
+		}
+	}
+
+	/**
+	 * Marks the index as changed. With the first change after the index was
+	 * read or written, the stored version is deleted as it is outdated now.
+	 */
+	private void markDirty() {
+		if (dirty)
+			return;
+		dirty = true;
+		deleteFile(db);
+	}
+
+	/**
+	 * Marks the index as stale and deletes its stored version, so that an
+	 * outdated index is not loaded in the next session when the index is not
+	 * rebuilt in this session anymore.
+	 */
+	private void markStale() {
+		stale = true;
+		deleteFile(db);
+	}
+
+	private Entry entryOf(
+			ModelType type, Descriptor d, Categories.PathBuilder paths) {
+		Long category = d instanceof RootDescriptor r ? r.category : null;
+		var path = category != null ? paths.pathOf(category) : null;
+		return new Entry(new Key(type, d.id), Labels.name(d), d.refId,
+				d.tags, category, path);
+	}
+
+	private void put(Entry e) {
+		entries.put(e.key, e);
+		if (e.refId != null) {
+			refIds.put(e.refId.toLowerCase(), e.key);
+		}
+		for (var token : tokenize(e.name)) {
+			tokens.computeIfAbsent(token, t -> new HashSet<>()).add(e.key);
+		}
+		for (var token : tokenize(e.path)) {
+			tokens.computeIfAbsent(token, t -> new HashSet<>()).add(e.key);
+		}
+		for (var tag : tagsOf(e.tags)) {
+			tags.computeIfAbsent(tag, t -> new HashSet<>()).add(e.key);
+			for (var token : tokenize(tag)) {
+				tokens.computeIfAbsent(token, t -> new HashSet<>()).add(e.key);
+			}
+		}
+	}
+
+	private void remove(Key key) {
+		var e = entries.remove(key);
+		if (e == null)
+			return;
+		if (e.refId != null) {
+			refIds.remove(e.refId.toLowerCase(), key);
+		}
+		var removed = new HashSet<String>();
+		removed.addAll(tokenize(e.name));
+		removed.addAll(tokenize(e.path));
+		for (var tag : tagsOf(e.tags)) {
+			removed.addAll(tokenize(tag));
+			removeFrom(tags, tag, key);
+		}
+		for (var token : removed) {
+			removeFrom(tokens, token, key);
+		}
+	}
+
+	private static void removeFrom(
+			Map<String, Set<Key>> map, String token, Key key) {
+		var keys = map.get(token);
+		if (keys == null)
+			return;
+		keys.remove(key);
+		if (keys.isEmpty()) {
+			map.remove(token);
+		}
+	}
+
+	private void clear() {
+		entries.clear();
+		tokens.clear();
+		tags.clear();
+		refIds.clear();
+	}
+
+	static List<String> tokenize(String text) {
+		if (Strings.nullOrEmpty(text))
+			return List.of();
+		var list = new ArrayList<String>();
+		for (var part : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+			if (!part.isEmpty()) {
+				list.add(part);
+			}
+		}
+		return list;
+	}
+
+	static List<String> tagsOf(String tags) {
+		if (Strings.nullOrEmpty(tags))
+			return List.of();
+		return Arrays.stream(tags.split(","))
+				.map(tag -> tag.strip().toLowerCase())
+				.filter(Strings::notEmpty)
+				.toList();
+	}
+
+	private File file() {
+		return fileOf(db);
+	}
+
+	private static File fileOf(IDatabase db) {
+		var dir = DatabaseDir.getFileStorageLocation(db);
+		return new File(dir, FILE);
+	}
+
+	private static void deleteFile(IDatabase db) {
+		var file = fileOf(db);
+		try {
+			Files.deleteIfExists(file.toPath());
+		} catch (Exception e) {
+			log.error("failed to delete search index " + file, e);
+		}
+	}
+
+	private boolean read() {
+		var file = file();
+		if (!file.exists())
+			return false;
+		try (var in = new DataInputStream(new GZIPInputStream(
+				new BufferedInputStream(new FileInputStream(file))))) {
+			if (in.readInt() != VERSION)
+				return false;
+			var paths = Categories.pathsOf(db);
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				var type = ModelType.valueOf(in.readUTF());
+				long id = in.readLong();
+				var name = readString(in);
+				var refId = readString(in);
+				var tags = readString(in);
+				long categoryId = in.readLong();
+				Long category = categoryId < 0 ? null : categoryId;
+				var path = category != null ? paths.pathOf(category) : null;
+				put(new Entry(new Key(type, id), name, refId, tags,
+						category, path));
+			}
+			dirty = false;
+			log.trace("loaded search index with {} models", count);
+			return true;
+		} catch (Exception e) {
+			log.warn("failed to read search index " + file
+					+ "; it will be rebuilt", e);
+			clear();
+			return false;
+		}
+	}
+
+	private void write() {
+		if (!dirty || stale)
+			return;
+		var file = file();
+		try {
+			var dir = file.getParentFile();
+			if (!dir.exists()) {
+				dir.mkdirs();
+			}
+			try (var out = new DataOutputStream(new GZIPOutputStream(
+					new BufferedOutputStream(new FileOutputStream(file))))) {
+				out.writeInt(VERSION);
+				out.writeInt(entries.size());
+				for (var e : entries.values()) {
+					out.writeUTF(e.key.type.name());
+					out.writeLong(e.key.id);
+					writeString(out, e.name);
+					writeString(out, e.refId);
+					writeString(out, e.tags);
+					out.writeLong(e.category != null ? e.category : -1);
+				}
+			}
+			dirty = false;
+		} catch (Exception e) {
+			log.error("failed to write search index " + file, e);
+			file.delete();
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String s)
+			throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+			return;
+		}
+		var bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0)
+			return null;
+		var bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	public record Key(ModelType type, long id) {
+	}
+
+	/**
+	 * The result of a name matching: the matching models, the categories
+	 * that contain them (directly or in a sub-category), and their types.
+	 */
+	public record NameMatches(
+			Set<Key> models, Set<Long> categories, Set<ModelType> types) {
+
+		public boolean contains(ModelType type, long id) {
+			return models.contains(new Key(type, id));
+		}
+	}
+
+	record Entry(
+			Key key, String name, String refId, String tags, Long category,
+			String path) {
+	}
+}
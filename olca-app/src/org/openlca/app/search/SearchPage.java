@@ -27,6 +27,7 @@ public class SearchPage extends SimpleFormEditor {
 
 	private Input input;
 	private List<Descriptor> results;
+	private Search search;
 
 	public static void show(String term, List<Descriptor> results) {
 		String resultKey = Cache.getAppCache().put(results);
@@ -34,6 +35,16 @@ public class SearchPage extends SimpleFormEditor {
 		Editors.open(input, "SearchPage");
 	}
 
+	/**
+	 * Opens a result page that is filled with the results of the given search
+	 * while it is running.
+	 */
+	static void show(String term, Search search) {
+		String key = Cache.getAppCache().put(search);
+		Input input = new Input(term, key);
+		Editors.open(input, "SearchPage");
+	}
+
 	public static void forUsage(RootDescriptor d) {
 		if (d == null || d.type == null)
 			return;
@@ -59,16 +70,30 @@ public class SearchPage extends SimpleFormEditor {
 			results = Collections.emptyList();
 		} else {
 			this.input = (Input) input;
-			results = Cache.getAppCache().remove(
-					this.input.resultKey, List.class);
+			Object obj = Cache.getAppCache().remove(this.input.resultKey);
+			if (obj instanceof Search s) {
+				search = s;
+			} else if (obj instanceof List<?> list) {
+				results = (List<Descriptor>) list;
+			}
 			if (results == null) {
 				results = Collections.emptyList();
 			}
 		}
 	}
 
+	@Override
+	public void dispose() {
+		if (search != null) {
+			search.cancel();
+		}
+		super.dispose();
+	}
+
 	@Override
 	protected FormPage getPage() {
+		if (search != null)
+			return new ResultPage(this, input.getName(), search);
 		String title = input.getName() +
 				" (" + results.size() + " " + M.Results + ")";
 		return new ResultPage(this, title, results);
@@ -34,6 +34,7 @@ public class SearchText extends WorkbenchWindowControlContribution {
 	private final Logger log = LoggerFactory.getLogger(getClass());
 	private Text text;
 	private DropDownAction action;
+	private Search search;
 
 	@Override
 	protected Control createControl(Composite parent) {
@@ -58,6 +59,8 @@ public class SearchText extends WorkbenchWindowControlContribution {
 				}
 			}
 		});
+		// abandoned queries should not take further resources
+		text.addModifyListener(e -> cancelSearch());
 		UI.gridData(text, true, false).minimumWidth = 180;
 		createActionMenu(composite);
 		return composite;
@@ -82,10 +85,18 @@ public class SearchText extends WorkbenchWindowControlContribution {
 			ParameterUsagePage.show(term);
 			return;
 		}
-		var search = new Search(Database.get(), text.getText())
+		cancelSearch();
+		search = new Search(Database.get(), term)
 				.withTypeFilter(typeFilter);
-		App.run(M.Searching, search,
-				() -> SearchPage.show(term, search.getResult()));
+		SearchPage.show(term, search);
+		App.run(M.Searching, search);
+	}
+
+	private void cancelSearch() {
+		if (search == null)
+			return;
+		search.cancel();
+		search = null;
 	}
 
 	private void doSearchOnline() {
@@ -0,0 +1,33 @@
+package org.openlca.app.tools.graphics.figures;
+
+import org.eclipse.draw2d.Graphics;
+
+/**
+ * Decides how detailed a figure is painted. When a diagram is zoomed out so
+ * far that the texts of the figures are not readable anymore, the figures
+ * can be painted as simple placeholders, which is much faster than painting
+ * all the labels and links. This is also the case when the diagram is painted
+ * into the minimap.
+ * <p>
+ * Figures outside the visible area of the viewport are not painted at all by
+ * draw2d, as their bounds do not intersect with the clipping region.
+ */
+public final class LevelOfDetail {
+
+	/**
+	 * The scale below which the details of the figures are not painted.
+	 */
+	public static final double MIN_READABLE_SCALE = 0.5;
+
+	private LevelOfDetail() {
+	}
+
+	/**
+	 * Returns true if the given graphics paints with a scale at which the
+	 * details of the figures are not readable.
+	 */
+	public static boolean isReduced(Graphics g) {
+		return g != null && g.getAbsoluteScale() < MIN_READABLE_SCALE;
+	}
+
+}
@@ -361,7 +361,11 @@ public class Thumbnail extends Figure implements UpdateListener {
 		}
 	}
 
+	/** The delay in milliseconds for combining updates of the thumbnail. */
+	private static final int UPDATE_DELAY = 500;
+
 	private boolean isDirty;
+	private boolean updateScheduled;
 	private float scaleX;
 	private float scaleY;
 
@@ -528,8 +532,7 @@ public class Thumbnail extends Figure implements UpdateListener {
 			IFigure current = (IFigure) o;
 			while (current != null) {
 				if (current == getSource()) {
-					setDirty(true);
-					repaint();
+					scheduleUpdate();
 					return;
 				}
 				current = current.getParent();
@@ -537,6 +540,25 @@ public class Thumbnail extends Figure implements UpdateListener {
 		}
 	}
 
+	/**
+	 * Marks the thumbnail as dirty after a short delay. Changes of the source
+	 * figure that happen within this delay are combined into a single update,
+	 * so that the thumbnail image is not rendered again for every single
+	 * repaint of the source figure (e.g. while dragging a node).
+	 */
+	private void scheduleUpdate() {
+		if (updateScheduled)
+			return;
+		updateScheduled = true;
+		Display.getCurrent().timerExec(UPDATE_DELAY, () -> {
+			updateScheduled = false;
+			if (sourceFigure == null || !updater.isActive())
+				return;
+			setDirty(true);
+			repaint();
+		});
+	}
+
 	/**
 	 * @see org.eclipse.draw2d.UpdateListener#notifyValidating()
 	 */
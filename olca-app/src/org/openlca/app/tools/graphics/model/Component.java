@@ -84,7 +84,7 @@ abstract public class Component extends Element implements Comparable<Component>
 
 	public void addChildren(List<Node> children) {
 		for (var child : children) {
-			children.add(child);
+			this.children.add(child);
 			child.setParent(this);
 		}
 		firePropertyChange(CHILDREN_PROP, null, null);
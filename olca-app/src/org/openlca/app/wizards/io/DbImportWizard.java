@@ -1,6 +1,7 @@
 package org.openlca.app.wizards.io;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.UUID;
 
@@ -15,6 +16,7 @@ import org.eclipse.ui.PlatformUI;
 import org.openlca.app.M;
 import org.openlca.app.db.Cache;
 import org.openlca.app.db.Database;
+import org.openlca.app.db.DatabaseBackup;
 import org.openlca.app.navigation.Navigator;
 import org.openlca.app.rcp.Workspace;
 import org.openlca.app.rcp.images.Icon;
@@ -29,7 +31,6 @@ import org.openlca.io.olca.DatabaseImport;
 import org.openlca.util.Dirs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.zeroturnaround.zip.ZipUtil;
 
 /**
  * Wizards for the import of data from an aicpLCA database to another aicpLCA
@@ -87,6 +88,9 @@ public class DbImportWizard extends Wizard implements IImportWizard {
 			var importDispatch = new ImportDispatch(connectionDispatch);
 			getContainer().run(true, true, importDispatch);
 			return true;
+		} catch (InterruptedException e) {
+			log.info("unpacking of the source database was canceled");
+			return false;
 		} catch (Exception e) {
 			ErrorReporter.on("Database import failed", e);
 			return false;
@@ -182,25 +186,38 @@ public class DbImportWizard extends Wizard implements IImportWizard {
 		}
 
 		@Override
-		public void run(IProgressMonitor monitor) throws InvocationTargetException {
+		public void run(IProgressMonitor monitor)
+				throws InvocationTargetException, InterruptedException {
 			log.trace("connect to source database");
 			try {
 				source = config.mode == config.FILE_MODE
-					? connectToFolder()
+					? connectToFolder(monitor)
 					: config.databaseConfiguration.connect(Workspace.dbDir());
+			} catch (OperationCanceledException e) {
+				throw new InterruptedException();
 			} catch (Exception e) {
 				log.error("Failed to connect to source database", e);
 				throw new InvocationTargetException(e);
 			}
 		}
 
-		private IDatabase connectToFolder() {
-			File zipFile = config.file;
-			File tempDir = new File(System.getProperty("java.io.tmpdir"));
-			tempDbFolder = new File(tempDir, UUID.randomUUID().toString());
-			tempDbFolder.mkdirs();
+		/**
+		 * Unpacks the zolca file into a temporary folder in the workspace. Thus,
+		 * the files are written to the same file system as the target database
+		 * and not to the (often smaller) temporary directory of the system. The
+		 * folder is not created in the database directory of the workspace as
+		 * it would be registered as a database there after a crash.
+		 */
+		private IDatabase connectToFolder(IProgressMonitor monitor)
+				throws IOException {
+			tempDbFolder = new File(Workspace.root(),
+					".import_" + UUID.randomUUID().toString().replace("-", ""));
 			log.trace("unpack zolca file to {}", tempDbFolder);
-			ZipUtil.unpack(zipFile, tempDbFolder);
+			try {
+				DatabaseBackup.unpack(config.file, tempDbFolder, monitor);
+			} finally {
+				monitor.done();
+			}
 			return new Derby(tempDbFolder);
 		}
 
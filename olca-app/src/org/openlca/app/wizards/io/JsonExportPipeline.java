@@ -0,0 +1,249 @@
+package org.openlca.app.wizards.io;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.openlca.app.preferences.FeatureFlag;
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.model.Callback;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.RootEntity;
+import org.openlca.core.model.descriptors.RootDescriptor;
+import org.openlca.jsonld.JsonStoreWriter;
+import org.openlca.jsonld.ZipStore;
+import org.openlca.jsonld.output.JsonExport;
+
+/**
+ * Exports data sets into a JSON-LD package in a pipeline (see
+ * {@link FeatureFlag#PARALLEL_JSON_EXPORT}). The pipeline has three stages:
+ * <ol>
+ * <li>the calling thread loads the entities of the selected data sets in
+ * batches per model type,</li>
+ * <li>a pool of serializer threads converts them, together with their
+ * dependencies, into JSON; each thread has its own {@link JsonExport},</li>
+ * <li>a single writer thread writes the JSON documents into the zip file.</li>
+ * </ol>
+ * As the serializer threads do not share their exports, the same dependency
+ * (e.g. a unit group or flow property) can be converted by more than one
+ * thread. It is then passed to the writer only once: the paths of the
+ * documents that were already passed are shared between the threads. The
+ * number of entities that are loaded but not serialized yet is bounded, so
+ * that the memory usage does not depend on the size of the export.
+ */
+class JsonExportPipeline {
+
+	private static final int BATCH_SIZE = 100;
+	private static final int QUEUE_SIZE = 512;
+	private static final long PROGRESS_INTERVAL = 250;
+
+	/** Marks the end of the documents in the writer queue. */
+	private static final Document END = new Document(null, null);
+
+	private final IDatabase db;
+	private final ZipStore store;
+	private final List<RootDescriptor> models;
+	private final Callback callback;
+	private final int threads;
+
+	private final Set<String> paths = ConcurrentHashMap.newKeySet();
+	private final BlockingQueue<Document> queue =
+			new ArrayBlockingQueue<>(QUEUE_SIZE);
+	private final AtomicInteger finished = new AtomicInteger();
+	private final AtomicLong bytes = new AtomicLong();
+	private volatile Exception error;
+
+	private long start;
+	private long lastProgress;
+	private int reported;
+
+	JsonExportPipeline(IDatabase db, ZipStore store,
+			List<RootDescriptor> models, Callback callback) {
+		this.db = db;
+		this.store = store;
+		this.models = models;
+		this.callback = callback;
+		this.threads = Math.max(1, Math.min(8,
+				Runtime.getRuntime().availableProcessors() - 1));
+	}
+
+	void run(IProgressMonitor monitor) throws Exception {
+		start = System.currentTimeMillis();
+		var writer = new Thread(this::write, "JSON-LD export writer");
+		writer.setDaemon(true);
+		writer.start();
+		var pool = Executors.newFixedThreadPool(threads, r -> {
+			var thread = new Thread(r, "JSON-LD export");
+			thread.setDaemon(true);
+			return thread;
+		});
+		var sink = new Sink();
+		var exports = ThreadLocal.withInitial(() -> new JsonExport(db, sink));
+		var permits = new Semaphore(threads * 4);
+		try {
+			for (var e : groupByType().entrySet()) {
+				var ids = e.getValue();
+				for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+					if (isStopped(monitor))
+						break;
+					var batch = new HashSet<>(
+							ids.subList(i, Math.min(ids.size(), i + BATCH_SIZE)));
+					var entities = Daos.root(db, e.getKey()).getForIds(batch);
+					for (var entity : entities) {
+						if (!acquire(permits, monitor))
+							break;
+						pool.execute(() -> serialize(exports, entity, permits));
+					}
+				}
+			}
+			pool.shutdown();
+			while (!pool.awaitTermination(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS)) {
+				if (isStopped(monitor)) {
+					pool.shutdownNow();
+				}
+				updateProgress(monitor, false);
+			}
+		} finally {
+			pool.shutdownNow();
+			pool.awaitTermination(1, TimeUnit.MINUTES);
+			queue.put(END);
+			writer.join();
+		}
+		updateProgress(monitor, true);
+		// errors of interrupted threads are expected when the export was
+		// canceled
+		if (error != null && !monitor.isCanceled())
+			throw error;
+	}
+
+	private LinkedHashMap<ModelType, List<Long>> groupByType() {
+		var groups = new LinkedHashMap<ModelType, List<Long>>();
+		for (var model : models) {
+			if (model == null || model.type == null)
+				continue;
+			groups.computeIfAbsent(model.type, t -> new ArrayList<>())
+					.add(model.id);
+		}
+		return groups;
+	}
+
+	private boolean isStopped(IProgressMonitor monitor) {
+		return monitor.isCanceled() || error != null;
+	}
+
+	/**
+	 * Waits until a further entity can be passed to the serializers and
+	 * updates the progress in the meantime. Returns false if the export was
+	 * stopped.
+	 */
+	private boolean acquire(Semaphore permits, IProgressMonitor monitor)
+			throws InterruptedException {
+		while (!permits.tryAcquire(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS)) {
+			if (isStopped(monitor))
+				return false;
+			updateProgress(monitor, false);
+		}
+		updateProgress(monitor, false);
+		return !isStopped(monitor);
+	}
+
+	private void serialize(
+			ThreadLocal<JsonExport> exports, RootEntity entity, Semaphore permits) {
+		try {
+			if (error == null) {
+				exports.get().write(entity, callback);
+			}
+		} catch (Exception e) {
+			fail(e);
+		} finally {
+			finished.incrementAndGet();
+			permits.release();
+		}
+	}
+
+	private void write() {
+		while (true) {
+			Document doc;
+			try {
+				doc = queue.take();
+			} catch (InterruptedException e) {
+				fail(e);
+				return;
+			}
+			if (doc == END)
+				return;
+			// when the export failed, the queue is still drained so that
+			// the serializers are not blocked
+			if (error != null)
+				continue;
+			try {
+				store.put(doc.path, doc.data);
+				bytes.addAndGet(doc.data.length);
+			} catch (Exception e) {
+				fail(e);
+			}
+		}
+	}
+
+	private synchronized void fail(Exception e) {
+		if (error == null) {
+			error = e;
+		}
+	}
+
+	/**
+	 * Reports the finished entities and the throughput of the export to the
+	 * progress monitor. This is only called from the thread that runs the
+	 * export as the monitor may not be thread safe.
+	 */
+	private void updateProgress(IProgressMonitor monitor, boolean force) {
+		long now = System.currentTimeMillis();
+		if (!force && now - lastProgress < PROGRESS_INTERVAL)
+			return;
+		lastProgress = now;
+		int count = finished.get();
+		if (count > reported) {
+			monitor.worked(count - reported);
+			reported = count;
+		}
+		double seconds = Math.max(0.001, (now - start) / 1000.0);
+		double mb = bytes.get() / (1024.0 * 1024.0);
+		monitor.subTask(String.format(
+				"%d of %d data sets; %.0f data sets/s, %.1f MB/s",
+				count, models.size(), count / seconds, mb / seconds));
+	}
+
+	/**
+	 * Collects the documents of the serializer threads and passes the ones
+	 * that were not passed yet to the writer.
+	 */
+	private class Sink implements JsonStoreWriter {
+
+		@Override
+		public void put(String path, byte[] data) {
+			if (path == null || data == null || !paths.add(path))
+				return;
+			try {
+				queue.put(new Document(path, data));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("JSON-LD export was interrupted", e);
+			}
+		}
+	}
+
+	private record Document(String path, byte[] data) {
+	}
+}
@@ -12,6 +12,7 @@ import org.eclipse.ui.IExportWizard;
 import org.eclipse.ui.IWorkbench;
 import org.openlca.app.M;
 import org.openlca.app.db.Database;
+import org.openlca.app.preferences.FeatureFlag;
 import org.openlca.app.util.ErrorReporter;
 import org.openlca.core.database.Daos;
 import org.openlca.core.database.IDatabase;
@@ -88,7 +89,13 @@ public class JsonExportWizard extends Wizard implements IExportWizard {
 
 		}
 
-		private void doExport(IProgressMonitor monitor, ZipStore store) {
+		private void doExport(IProgressMonitor monitor, ZipStore store)
+				throws Exception {
+			if (FeatureFlag.PARALLEL_JSON_EXPORT.isEnabled()) {
+				new JsonExportPipeline(database, store, models, this::onMessage)
+						.run(monitor);
+				return;
+			}
 			var export = new JsonExport(database, store);
 			for (var model : models) {
 				if (monitor.isCanceled())
@@ -104,17 +111,19 @@ public class JsonExportWizard extends Wizard implements IExportWizard {
 		}
 
 		private void doExport(JsonExport export, RootEntity entity) {
-			export.write(entity, (message, data) -> {
-				if (message == null)
-					return;
-				switch (message.type) {
-					case Message.INFO -> log.trace("{}: {}", data, message.text);
-					case Message.WARN -> log.warn("{}: {}", data, message.text);
-					case Message.ERROR -> log.error("{}: {}", data, message.text);
-					default -> {
-					}
+			export.write(entity, this::onMessage);
+		}
+
+		private void onMessage(Message message, Object data) {
+			if (message == null)
+				return;
+			switch (message.type) {
+				case Message.INFO -> log.trace("{}: {}", data, message.text);
+				case Message.WARN -> log.warn("{}: {}", data, message.text);
+				case Message.ERROR -> log.error("{}: {}", data, message.text);
+				default -> {
 				}
-			});
+			}
 		}
 	}
 }